@@ -0,0 +1,143 @@
+/*
+ * Apache 2.0 License
+ *
+ * Copyright (c) Sebastian Katzer 2017
+ *
+ * This file contains Original Code and/or Modifications of Original Code
+ * as defined in and that are subject to the Apache License
+ * Version 2.0 (the 'License'). You may not use this file except in
+ * compliance with the License. Please obtain a copy of the License at
+ * http://opensource.org/licenses/Apache-2.0/ and read it before using this
+ * file.
+ *
+ * The Original Code and all software distributed under the License are
+ * distributed on an 'AS IS' basis, WITHOUT WARRANTY OF ANY KIND, EITHER
+ * EXPRESS OR IMPLIED, AND APPLE HEREBY DISCLAIMS ALL SUCH WARRANTIES,
+ * INCLUDING WITHOUT LIMITATION, ANY WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE, QUIET ENJOYMENT OR NON-INFRINGEMENT.
+ * Please see the License for the specific language governing rights and
+ * limitations under the License.
+ */
+
+package de.appplant.cordova.plugin.localnotification;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Call count, errors and a latency histogram per action called from JS.
+ */
+final class ActionStats {
+
+    // Upper bounds of the latency buckets in ms
+    private static final long[] BUCKETS = { 1, 5, 10, 50, 100, 500, 1000 };
+
+    // Counters per action
+    private final Map<String, Counter> counters = new HashMap<String, Counter>();
+
+    /**
+     * Count a call of the action.
+     *
+     * @param action  The name of the action.
+     * @param latency The time in ms the action took.
+     * @param failed  If the action failed.
+     */
+    synchronized void record (String action, long latency, boolean failed) {
+        Counter counter = counters.get(action);
+
+        if (counter == null) {
+            counter = new Counter();
+            counters.put(action, counter);
+        }
+
+        counter.add(latency, failed);
+    }
+
+    /**
+     * The counters of all actions called so far.
+     */
+    synchronized JSONObject toJSON() {
+        JSONObject stats = new JSONObject();
+
+        try {
+            for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+                stats.put(entry.getKey(), entry.getValue().toJSON());
+            }
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+
+        return stats;
+    }
+
+    /**
+     * Counters of a single action.
+     */
+    private static final class Counter {
+
+        // Number of calls
+        private long count = 0;
+
+        // Number of failed calls
+        private long errors = 0;
+
+        // Sum of the latencies in ms
+        private long total = 0;
+
+        // Highest latency in ms
+        private long max = 0;
+
+        // Number of calls per latency bucket, the last one is unbounded
+        private final long[] histogram = new long[BUCKETS.length + 1];
+
+        /**
+         * Count a call.
+         *
+         * @param latency The time in ms the call took.
+         * @param failed  If the call failed.
+         */
+        void add (long latency, boolean failed) {
+            int bucket = 0;
+
+            while (bucket < BUCKETS.length && latency > BUCKETS[bucket]) {
+                bucket++;
+            }
+
+            count++;
+            total += latency;
+            max    = Math.max(max, latency);
+            histogram[bucket]++;
+
+            if (failed) {
+                errors++;
+            }
+        }
+
+        /**
+         * The counters as JSON where the histogram maps the upper bound
+         * of each bucket to its number of calls.
+         */
+        JSONObject toJSON() throws JSONException {
+            JSONObject json    = new JSONObject();
+            JSONObject buckets = new JSONObject();
+
+            for (int i = 0; i < BUCKETS.length; i++) {
+                buckets.put(String.valueOf(BUCKETS[i]), histogram[i]);
+            }
+
+            buckets.put("more", histogram[BUCKETS.length]);
+
+            json.put("count", count);
+            json.put("errors", errors);
+            json.put("avg", count > 0 ? total / count : 0);
+            json.put("max", max);
+            json.put("histogram", buckets);
+
+            return json;
+        }
+    }
+
+}
@@ -27,7 +27,7 @@ import de.appplant.cordova.plugin.notification.Notification;
 import de.appplant.cordova.plugin.notification.receiver.AbstractClearReceiver;
 
 import static de.appplant.cordova.plugin.localnotification.LocalNotification.fireEvent;
-import static de.appplant.cordova.plugin.localnotification.LocalNotification.isAppRunning;
+import static de.appplant.cordova.plugin.localnotification.LocalNotification.isReceivingEvents;
 import static de.appplant.cordova.plugin.notification.Request.EXTRA_LAST;
 
 /**
@@ -53,7 +53,7 @@ public class ClearReceiver extends AbstractClearReceiver {
             notification.clear();
         }
 
-        if (isAppRunning()) {
+        if (isReceivingEvents(notification.getContext())) {
             fireEvent("clear", notification);
         }
     }
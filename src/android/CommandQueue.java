@@ -0,0 +1,248 @@
+/*
+ * Apache 2.0 License
+ *
+ * Copyright (c) Sebastian Katzer 2017
+ *
+ * This file contains Original Code and/or Modifications of Original Code
+ * as defined in and that are subject to the Apache License
+ * Version 2.0 (the 'License'). You may not use this file except in
+ * compliance with the License. Please obtain a copy of the License at
+ * http://opensource.org/licenses/Apache-2.0/ and read it before using this
+ * file.
+ *
+ * The Original Code and all software distributed under the License are
+ * distributed on an 'AS IS' basis, WITHOUT WARRANTY OF ANY KIND, EITHER
+ * EXPRESS OR IMPLIED, AND APPLE HEREBY DISCLAIMS ALL SUCH WARRANTIES,
+ * INCLUDING WITHOUT LIMITATION, ANY WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE, QUIET ENJOYMENT OR NON-INFRINGEMENT.
+ * Please see the License for the specific language governing rights and
+ * limitations under the License.
+ */
+
+package de.appplant.cordova.plugin.localnotification;
+
+import android.os.Process;
+import android.os.SystemClock;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor owned by the plugin to run the commands from JS. Queries run
+ * concurrently on threads with default priority, while all mutations run
+ * one after another on a single background thread. That way a bulk
+ * schedule can not delay a query and the mutations of a notification
+ * are applied in the order they were called.
+ */
+final class CommandQueue {
+
+    // Number of threads for the queries
+    private static final int QUERY_THREADS = 2;
+
+    // Time in seconds after which idle threads terminate
+    private static final long KEEP_ALIVE = 30;
+
+    // Lane for read-only commands
+    private final Lane queries = new Lane("LocalNotificationQuery",
+            QUERY_THREADS, Process.THREAD_PRIORITY_DEFAULT);
+
+    // Lane for commands which change notifications
+    private final Lane mutations = new Lane("LocalNotificationMutation",
+            1, Process.THREAD_PRIORITY_BACKGROUND);
+
+    /**
+     * Run a read-only command.
+     *
+     * @param task The command to run.
+     */
+    void query (Runnable task) {
+        queries.execute(task);
+    }
+
+    /**
+     * Run a command which changes notifications after all mutations
+     * called before.
+     *
+     * @param task The command to run.
+     */
+    void mutate (Runnable task) {
+        mutations.execute(task);
+    }
+
+    /**
+     * The mutation lane for code outside of the plugin package, which
+     * has to change notifications in order with the commands from JS.
+     */
+    Executor getMutationLane() {
+        return new Executor() {
+            @Override
+            public void execute (Runnable task) {
+                mutate(task);
+            }
+        };
+    }
+
+    /**
+     * Queue depth and wait times of both lanes.
+     */
+    JSONObject getStats() {
+        JSONObject stats = new JSONObject();
+
+        try {
+            stats.put("queries", queries.getStats());
+            stats.put("mutations", mutations.getStats());
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+
+        return stats;
+    }
+
+    /**
+     * Thread pool with counters about the time the tasks had to wait.
+     */
+    private static final class Lane {
+
+        // The pool which runs the tasks
+        private final ThreadPoolExecutor executor;
+
+        // Number of tasks handed over
+        private final AtomicLong submitted = new AtomicLong();
+
+        // Number of tasks finished
+        private final AtomicLong completed = new AtomicLong();
+
+        // Sum of the wait times in ms
+        private final AtomicLong waitTotal = new AtomicLong();
+
+        // Longest wait time in ms
+        private final AtomicLong waitMax = new AtomicLong();
+
+        /**
+         * Constructor
+         *
+         * @param name     Name prefix of the threads.
+         * @param threads  Max number of threads.
+         * @param priority Linux priority of the threads.
+         */
+        Lane (String name, int threads, int priority) {
+            executor = new ThreadPoolExecutor(threads, threads,
+                    KEEP_ALIVE, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(),
+                    new Factory(name, priority));
+
+            executor.allowCoreThreadTimeOut(true);
+        }
+
+        /**
+         * Run the task and measure how long it waited for a thread.
+         *
+         * @param task The task to run.
+         */
+        void execute (final Runnable task) {
+            final long queued = SystemClock.elapsedRealtime();
+
+            submitted.incrementAndGet();
+
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    record(SystemClock.elapsedRealtime() - queued);
+
+                    try {
+                        task.run();
+                    } finally {
+                        completed.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        /**
+         * Add the wait time to the counters.
+         *
+         * @param wait The wait time in ms.
+         */
+        private void record (long wait) {
+            long max = waitMax.get();
+
+            waitTotal.addAndGet(wait);
+
+            while (wait > max && !waitMax.compareAndSet(max, wait)) {
+                max = waitMax.get();
+            }
+        }
+
+        /**
+         * Queue depth and wait times of the lane.
+         */
+        JSONObject getStats() {
+            JSONObject stats = new JSONObject();
+            long started     = submitted.get() - executor.getQueue().size();
+
+            try {
+                stats.put("depth", executor.getQueue().size());
+                stats.put("active", executor.getActiveCount());
+                stats.put("submitted", submitted.get());
+                stats.put("completed", completed.get());
+                stats.put("waitAvg", started > 0 ? waitTotal.get() / started : 0);
+                stats.put("waitMax", waitMax.get());
+            } catch (JSONException e) {
+                e.printStackTrace();
+            }
+
+            return stats;
+        }
+    }
+
+    /**
+     * Creates named threads with the given priority.
+     */
+    private static final class Factory implements ThreadFactory {
+
+        // Name prefix of the threads
+        private final String name;
+
+        // Linux priority of the threads
+        private final int priority;
+
+        // Number of threads created so far
+        private final AtomicInteger count = new AtomicInteger();
+
+        /**
+         * Constructor
+         *
+         * @param name     Name prefix of the threads.
+         * @param priority Linux priority of the threads.
+         */
+        Factory (String name, int priority) {
+            this.name     = name;
+            this.priority = priority;
+        }
+
+        /**
+         * Create a thread which sets its priority before running.
+         *
+         * @param task The runnable of the pool.
+         */
+        @Override
+        public Thread newThread (final Runnable task) {
+            return new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(priority);
+                    task.run();
+                }
+            }, name + "-" + count.incrementAndGet());
+        }
+    }
+
+}
@@ -0,0 +1,329 @@
+/*
+ * Apache 2.0 License
+ *
+ * Copyright (c) Sebastian Katzer 2017
+ *
+ * This file contains Original Code and/or Modifications of Original Code
+ * as defined in and that are subject to the Apache License
+ * Version 2.0 (the 'License'). You may not use this file except in
+ * compliance with the License. Please obtain a copy of the License at
+ * http://opensource.org/licenses/Apache-2.0/ and read it before using this
+ * file.
+ *
+ * The Original Code and all software distributed under the License are
+ * distributed on an 'AS IS' basis, WITHOUT WARRANTY OF ANY KIND, EITHER
+ * EXPRESS OR IMPLIED, AND APPLE HEREBY DISCLAIMS ALL SUCH WARRANTIES,
+ * INCLUDING WITHOUT LIMITATION, ANY WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE, QUIET ENJOYMENT OR NON-INFRINGEMENT.
+ * Please see the License for the specific language governing rights and
+ * limitations under the License.
+ */
+
+package de.appplant.cordova.plugin.localnotification;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Bounded queue for the events fired before the webview is ready to receive
+ * them. Once full, either the oldest event gets dropped or an older event
+ * of the same notification makes room. If durable, events fired while the
+ * app is not running get spilled to disk and replayed on next deviceready.
+ */
+final class EventQueue {
+
+    // What to do if the queue is full
+    enum Overflow { DROP_OLDEST, COALESCE }
+
+    // Default max number of queued events
+    static final int DEFAULT_CAPACITY = 100;
+
+    // Key for private preferences
+    private static final String PREF_KEY = "NOTIFICATION_EVENTS";
+
+    // Name of the file where to spill the events
+    private static final String FILE_NAME = "localnotification-events";
+
+    // The singleton instance
+    private static EventQueue instance;
+
+    // The application context
+    private final Context context;
+
+    // The queued events in the order they were fired
+    private final ArrayDeque<JSONArray> events = new ArrayDeque<JSONArray>();
+
+    // Max number of queued events
+    private int capacity;
+
+    // What to do if the queue is full
+    private Overflow overflow;
+
+    // If events fired while the app is not running get spilled to disk
+    private boolean durable;
+
+    // Number of events in the file on disk or -1 if not counted yet
+    private int spilled = -1;
+
+    /**
+     * Constructor
+     *
+     * @param context Application context.
+     */
+    private EventQueue(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(
+                PREF_KEY, Context.MODE_PRIVATE);
+
+        this.context  = context.getApplicationContext();
+        this.capacity = prefs.getInt("capacity", DEFAULT_CAPACITY);
+        this.overflow = Overflow.valueOf(
+                prefs.getString("overflow", Overflow.DROP_OLDEST.name()));
+        this.durable  = prefs.getBoolean("durable", false);
+    }
+
+    /**
+     * Static method to retrieve class instance.
+     *
+     * @param context Application context.
+     */
+    static synchronized EventQueue getInstance(Context context) {
+        if (instance == null) {
+            instance = new EventQueue(context);
+        }
+
+        return instance;
+    }
+
+    /**
+     * Configure the queue. The settings get persisted so that receivers
+     * know about them while the app is not running.
+     *
+     * @param capacity Max number of queued events.
+     * @param overflow One of dropOldest or coalesce.
+     * @param durable  If events shall survive the death of the process.
+     */
+    synchronized void configure(int capacity, String overflow, boolean durable) {
+        this.capacity = Math.max(capacity, 1);
+        this.overflow = "coalesce".equalsIgnoreCase(overflow)
+                ? Overflow.COALESCE : Overflow.DROP_OLDEST;
+        this.durable  = durable;
+
+        context.getSharedPreferences(PREF_KEY, Context.MODE_PRIVATE)
+                .edit()
+                .putInt("capacity", this.capacity)
+                .putString("overflow", this.overflow.name())
+                .putBoolean("durable", this.durable)
+                .apply();
+    }
+
+    /**
+     * If events fired while the app is not running get spilled to disk.
+     */
+    synchronized boolean isDurable() {
+        return durable;
+    }
+
+    /**
+     * Queue the event in memory.
+     *
+     * @param event The event name followed by its arguments.
+     */
+    synchronized void add(JSONArray event) {
+        offer(events, event);
+    }
+
+    /**
+     * Append the event to the file on disk. Once the file holds as many
+     * events as the capacity, it gets rewritten with the overflow policy
+     * applied, so that it does not grow while the app stays dead.
+     *
+     * @param event The event name followed by its arguments.
+     */
+    synchronized void spill(JSONArray event) {
+        if (spilled < 0) {
+            spilled = load().size();
+        }
+
+        if (spilled >= capacity) {
+            compact(event);
+            return;
+        }
+
+        try {
+            FileWriter out = new FileWriter(getFile(), true);
+            out.write(event.toString());
+            out.write('\n');
+            out.close();
+            spilled++;
+        } catch (IOException e) {
+            e.printStackTrace();
+            add(event);
+        }
+    }
+
+    /**
+     * Rewrite the file on disk with the event added and the overflow
+     * policy applied. Writes to a temp file first, so that a crash does
+     * not lose the events spilled so far.
+     *
+     * @param event The event name followed by its arguments.
+     */
+    private void compact(JSONArray event) {
+        ArrayDeque<JSONArray> queue = load();
+        File file                   = getFile();
+        File part                   = new File(file.getPath() + ".part");
+
+        offer(queue, event);
+
+        try {
+            FileWriter out = new FileWriter(part);
+
+            for (JSONArray item : queue) {
+                out.write(item.toString());
+                out.write('\n');
+            }
+
+            out.close();
+
+            if (!part.renameTo(file))
+                throw new IOException("Failed to replace " + file);
+
+            spilled = queue.size();
+        } catch (IOException e) {
+            e.printStackTrace();
+            add(event);
+        }
+    }
+
+    /**
+     * Remove and return all queued events, those from disk first.
+     */
+    synchronized List<JSONArray> drain() {
+        ArrayDeque<JSONArray> queue = load();
+
+        for (JSONArray event : events) {
+            offer(queue, event);
+        }
+
+        events.clear();
+
+        //noinspection ResultOfMethodCallIgnored
+        getFile().delete();
+        spilled = 0;
+
+        return new ArrayList<JSONArray>(queue);
+    }
+
+    /**
+     * Read the events spilled to disk.
+     */
+    private ArrayDeque<JSONArray> load() {
+        ArrayDeque<JSONArray> queue = new ArrayDeque<JSONArray>();
+        File file                   = getFile();
+
+        if (!file.exists())
+            return queue;
+
+        try {
+            BufferedReader in = new BufferedReader(new FileReader(file));
+            String line;
+
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty())
+                    continue;
+
+                try {
+                    offer(queue, new JSONArray(line));
+                } catch (JSONException e) {
+                    e.printStackTrace();
+                }
+            }
+
+            in.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return queue;
+    }
+
+    /**
+     * Add the event to the queue and apply the overflow policy if the
+     * queue is full.
+     *
+     * @param queue The queue to add to.
+     * @param event The event to add.
+     */
+    private void offer(ArrayDeque<JSONArray> queue, JSONArray event) {
+        if (queue.size() >= capacity && overflow == Overflow.COALESCE) {
+            removeOlderOf(queue, event);
+        }
+
+        while (queue.size() >= capacity) {
+            queue.pollFirst();
+        }
+
+        queue.addLast(event);
+    }
+
+    /**
+     * Remove the oldest event with the same name and of the same
+     * notification as the specified one.
+     *
+     * @param queue The queue to search through.
+     * @param event The newer event.
+     */
+    private void removeOlderOf(ArrayDeque<JSONArray> queue, JSONArray event) {
+        int id      = getNotificationId(event);
+        String name = event.optString(0);
+
+        if (id == 0)
+            return;
+
+        Iterator<JSONArray> it = queue.iterator();
+
+        while (it.hasNext()) {
+            JSONArray older = it.next();
+
+            if (getNotificationId(older) == id && name.equals(older.optString(0))) {
+                it.remove();
+                return;
+            }
+        }
+    }
+
+    /**
+     * The ID of the notification the event belongs to.
+     *
+     * @param event The event name followed by its arguments.
+     *
+     * @return 0 if the event does not belong to a notification.
+     */
+    private int getNotificationId(JSONArray event) {
+        JSONObject data = event.optJSONObject(event.length() - 1);
+
+        return (data != null) ? data.optInt("notification", 0) : 0;
+    }
+
+    /**
+     * The file where to spill the events.
+     */
+    private File getFile() {
+        return new File(context.getFilesDir(), FILE_NAME);
+    }
+
+}
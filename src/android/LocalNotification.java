@@ -37,6 +37,9 @@ import android.app.NotificationChannel;
 import android.media.RingtoneManager;
 import android.support.v4.app.NotificationCompat;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
 import org.apache.cordova.CallbackContext;
@@ -50,13 +53,19 @@ import org.json.JSONObject;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import de.appplant.cordova.plugin.notification.Manager;
 import de.appplant.cordova.plugin.notification.Notification;
 import de.appplant.cordova.plugin.notification.Options;
+import de.appplant.cordova.plugin.notification.ProgressQueue;
 import de.appplant.cordova.plugin.notification.Request;
 import de.appplant.cordova.plugin.notification.action.ActionGroup;
+import de.appplant.cordova.plugin.notification.receiver.RestoreCheckpoint;
+import de.appplant.cordova.plugin.notification.util.AssetCache;
 
 import static de.appplant.cordova.plugin.notification.Notification.Type.SCHEDULED;
 import static de.appplant.cordova.plugin.notification.Notification.Type.TRIGGERED;
@@ -78,12 +87,43 @@ public class LocalNotification extends CordovaPlugin {
 
     private static Activity cordovaActivity;
 
-    // Queues all events before deviceready
-    private static ArrayList<String> eventQueue = new ArrayList<String>();
+    // Events waiting to be sent with the next batch
+    private static final ArrayList<JSONArray> pendingEvents = new ArrayList<JSONArray>();
+
+    // Long-lived callback to deliver the events to JS
+    private static CallbackContext eventChannel = null;
+
+    // Events JS listens to, mapped to the properties they need or null for all
+    private static volatile Map<String, List<String>> listeners = null;
+
+    // Time slice in ms to collect events for one batch
+    private static final long EVENT_BATCH_DELAY = 16;
+
+    // Handler of the UI thread to dispatch the event batches
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
 
     // Launch details
     private static Pair<Integer, String> launchDetails;
 
+    // Where to run the handler of an action
+    private enum Lane { INLINE, QUERY, MUTATION }
+
+    // Handler of an action called from JS
+    private interface Command {
+        void execute (JSONArray args, CallbackContext command)
+                throws JSONException;
+    }
+
+    // Executor for the commands from JS
+    private static final CommandQueue commands = new CommandQueue();
+
+    // Call count, errors and latency per action
+    private static final ActionStats stats = new ActionStats();
+
+    // Handlers of the actions callable from JS
+    private final Map<String, Pair<Lane, Command>> handlers =
+            new HashMap<String, Pair<Lane, Command>>();
+
     private static NotificationChannel defaultNotificationChannel = null;
     public static String defaultChannelId = null;
     public static String defaultChannelName = null;
@@ -91,6 +131,22 @@ public class LocalNotification extends CordovaPlugin {
     @Override
     protected void pluginInitialize() {
         cordovaActivity = this.cordova.getActivity();
+
+        registerCommands();
+
+        getAssetCache().setQuota(preferences.getInteger(
+                "LocalNotificationCacheQuota", AssetCache.DEFAULT_QUOTA));
+
+        getAssetCache().trimWhenIdle();
+
+        getEventQueue(cordovaActivity).configure(
+                preferences.getInteger("LocalNotificationEventQueueSize",
+                        EventQueue.DEFAULT_CAPACITY),
+                preferences.getString("LocalNotificationEventQueueOverflow",
+                        "dropOldest"),
+                preferences.getBoolean("LocalNotificationEventQueueDurable",
+                        false));
+
         this.cordova.getThreadPool().execute(new Runnable() {
             public void run() {
                 try {
@@ -100,6 +156,8 @@ public class LocalNotification extends CordovaPlugin {
                 }catch (Exception e){
                     Log.e("LocalNotification", e.getMessage());
                 }
+
+                getNotMgr().preloadResources();
             }
         });
     }
@@ -125,23 +183,42 @@ public class LocalNotification extends CordovaPlugin {
         deviceready();
     }
 
+    /**
+     * Called when the system is about to start resuming a previous activity.
+     *
+     * @param multitasking Flag indicating if multitasking is turned on for app.
+     */
+    @Override
+    public void onPause (boolean multitasking) {
+        super.onPause(multitasking);
+        getAssetCache().trimWhenIdle();
+    }
+
     /**
      * The final call you receive before your activity is destroyed.
      */
     @Override
     public void onDestroy() {
         deviceready = false;
+        listeners   = null;
+        closeEventChannel();
+    }
+
+    /**
+     * Called when the WebView does a top-level navigation or refreshes.
+     */
+    @Override
+    public void onReset() {
+        listeners = null;
+        closeEventChannel();
     }
 
     /**
      * Executes the request.
      *
-     * This method is called from the WebView thread. To do a non-trivial
-     * amount of work, use:
-     *      cordova.getThreadPool().execute(runnable);
-     *
-     * To run on the UI thread, use:
-     *     cordova.getActivity().runOnUiThread(runnable);
+     * This method is called from the WebView thread. Looks up the handler
+     * of the action, queries run concurrently, commands which change
+     * notifications run one after another in the order they were called.
      *
      * @param action  The action to execute.
      * @param args    The exec() arguments in JSON form.
@@ -154,94 +231,246 @@ public class LocalNotification extends CordovaPlugin {
     public boolean execute (final String action, final JSONArray args,
                             final CallbackContext command) throws JSONException {
 
-        if (action.equals("launch")) {
-            launch(command);
-            return true;
-        }
+        final Pair<Lane, Command> entry = handlers.get(action);
 
-        cordova.getThreadPool().execute(new Runnable() {
+        if (entry == null)
+            return false;
+
+        Runnable task = new Runnable() {
             public void run() {
-                if (action.equals("ready")) {
-                    deviceready();
-                } else
-                if (action.equals("check")) {
-                    check(command);
-                } else
-                if (action.equals("request")) {
-                    request(command);
-                } else
-                if (action.equals("actions")) {
-                    actions(args, command);
-                } else
-                if (action.equals("schedule")) {
-                    schedule(args, command);
-                } else
-                if (action.equals("update")) {
-                    update(args, command);
-                } else
-                if (action.equals("cancel")) {
-                    cancel(args, command);
-                } else
-                if (action.equals("cancelAll")) {
-                    cancelAll(command);
-                } else
-                if (action.equals("clear")) {
-                    clear(args, command);
-                } else
-                if (action.equals("clearAll")) {
-                    clearAll(command);
-                } else
-                if (action.equals("type")) {
-                    type(args, command);
-                } else
-                if (action.equals("ids")) {
-                    ids(args, command);
-                } else
-                if (action.equals("notification")) {
-                    notification(args, command);
-                } else
-                if (action.equals("notifications")) {
-                    notifications(args, command);
-                } else
-                if (action.equals("createChannel")) {
-                    try
-                    {
-                        createChannel(command, args.getJSONObject(0));
-                    }
-                    catch(JSONException e)
-                    {
-                        Log.e("LocalNotification", e.getMessage());
-                    }
-                } else 
-                if (action.equals("deleteChannel")) {
-                    try
-                    {
-                        deleteChannel(command, args.getString(0));
-                    }
-                    catch(JSONException e)
-                    {
-                        Log.e("LocalNotification", e.getMessage());
-                    }
-                } else 
-                if (action.equals("listChannels")) {
-                    listChannels(command);
-                } else 
-                if (action.equals("setDefaultChannel")) {
-                    try
-                    {
-                        setDefaultChannel(command, args.getJSONObject(0));
-                    }
-                    catch(JSONException e)
-                    {
-                        Log.e("LocalNotification", e.getMessage());
-                    }
-                }
+                invoke(action, entry.second, args, command);
             }
-        });
+        };
+
+        switch (entry.first) {
+            case INLINE:
+                task.run();
+                break;
+            case QUERY:
+                commands.query(task);
+                break;
+            default:
+                commands.mutate(task);
+        }
 
         return true;
     }
 
+    /**
+     * Run the handler of the action and record its latency. Errors are
+     * passed to the callback so that JS does not wait forever. A call
+     * counts as failed if it threw or if it answered with an error.
+     *
+     * @param action  The action to execute.
+     * @param handler The handler of the action.
+     * @param args    The exec() arguments in JSON form.
+     * @param command The callback context used when calling back into
+     *                JavaScript.
+     */
+    private void invoke (String action, Command handler, JSONArray args,
+                         CallbackContext command) {
+
+        CordovaWebView view            = (webView != null) ? webView.get() : null;
+        TrackedCallbackContext tracked = new TrackedCallbackContext(command, view);
+        long start                     = SystemClock.elapsedRealtime();
+
+        try {
+            handler.execute(args, tracked);
+        } catch (JSONException e) {
+            Log.e("LocalNotification", action + ": " + e.getMessage());
+            tracked.error(e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            tracked.error(e.getMessage());
+        } finally {
+            stats.record(action, SystemClock.elapsedRealtime() - start,
+                    tracked.isFailed());
+        }
+    }
+
+    /**
+     * Register the handlers of all actions callable from JS.
+     */
+    private void registerCommands() {
+        register("launch", Lane.INLINE, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                launch(command);
+            }
+        });
+
+        register("events", Lane.INLINE, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                openEventChannel(command);
+            }
+        });
+
+        register("listeners", Lane.INLINE, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                setListeners(args.optJSONObject(0));
+                command.success();
+            }
+        });
+
+        register("progress", Lane.INLINE, new Command() {
+            public void execute (JSONArray args, CallbackContext command)
+                    throws JSONException {
+                progress(args, command);
+            }
+        });
+
+        register("ready", Lane.QUERY, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                deviceready();
+            }
+        });
+
+        register("check", Lane.QUERY, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                check(command);
+            }
+        });
+
+        register("request", Lane.QUERY, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                request(command);
+            }
+        });
+
+        register("type", Lane.QUERY, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                type(args, command);
+            }
+        });
+
+        register("ids", Lane.QUERY, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                ids(args, command);
+            }
+        });
+
+        register("notification", Lane.QUERY, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                notification(args, command);
+            }
+        });
+
+        register("notifications", Lane.QUERY, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                notifications(args, command);
+            }
+        });
+
+        register("listChannels", Lane.QUERY, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                listChannels(command);
+            }
+        });
+
+        register("cacheStats", Lane.QUERY, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                cacheStats(command);
+            }
+        });
+
+        register("queueStats", Lane.QUERY, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                queueStats(command);
+            }
+        });
+
+        register("restoreStats", Lane.QUERY, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                restoreStats(command);
+            }
+        });
+
+        register("stats", Lane.QUERY, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                command.success(stats.toJSON());
+            }
+        });
+
+        register("actions", Lane.MUTATION, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                actions(args, command);
+            }
+        });
+
+        register("schedule", Lane.MUTATION, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                schedule(args, command);
+            }
+        });
+
+        register("sync", Lane.MUTATION, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                sync(args, command);
+            }
+        });
+
+        register("update", Lane.MUTATION, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                update(args, command);
+            }
+        });
+
+        register("cancel", Lane.MUTATION, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                cancel(args, command);
+            }
+        });
+
+        register("cancelAll", Lane.MUTATION, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                cancelAll(command);
+            }
+        });
+
+        register("clear", Lane.MUTATION, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                clear(args, command);
+            }
+        });
+
+        register("clearAll", Lane.MUTATION, new Command() {
+            public void execute (JSONArray args, CallbackContext command) {
+                clearAll(command);
+            }
+        });
+
+        register("createChannel", Lane.MUTATION, new Command() {
+            public void execute (JSONArray args, CallbackContext command)
+                    throws JSONException {
+                createChannel(command, args.getJSONObject(0));
+            }
+        });
+
+        register("deleteChannel", Lane.MUTATION, new Command() {
+            public void execute (JSONArray args, CallbackContext command)
+                    throws JSONException {
+                deleteChannel(command, args.getString(0));
+            }
+        });
+
+        register("setDefaultChannel", Lane.MUTATION, new Command() {
+            public void execute (JSONArray args, CallbackContext command)
+                    throws JSONException {
+                setDefaultChannel(command, args.getJSONObject(0));
+            }
+        });
+    }
+
+    /**
+     * Register the handler of an action.
+     *
+     * @param action  The name of the action.
+     * @param lane    Where to run the handler.
+     * @param handler The handler to call.
+     */
+    private void register (String action, Lane lane, Command handler) {
+        handlers.put(action, new Pair<Lane, Command>(lane, handler));
+    }
+
     /**
      * Set launchDetails object.
      *
@@ -304,15 +533,15 @@ public class LocalNotification extends CordovaPlugin {
         switch (task) {
             case 0:
                 ActionGroup group = ActionGroup.parse(context, id, list);
-                ActionGroup.register(group);
+                ActionGroup.register(context, group);
                 command.success();
                 break;
             case 1:
-                ActionGroup.unregister(id);
+                ActionGroup.unregister(context, id);
                 command.success();
                 break;
             case 2:
-                boolean found = ActionGroup.isRegistered(id);
+                boolean found = ActionGroup.isRegistered(context, id);
                 success(command, found);
                 break;
         }
@@ -335,13 +564,115 @@ public class LocalNotification extends CordovaPlugin {
             Notification toast = mgr.schedule(request, TriggerReceiver.class);
 
             if (toast != null) {
-                fireEvent("add", toast);
+                fireEvent("add", toast, getAddData(toast));
             }
         }
 
         check(command);
     }
 
+    /**
+     * Event data for the add event which tells if scheduling was skipped
+     * since the same notification was already scheduled.
+     *
+     * @param toast The scheduled notification.
+     */
+    private JSONObject getAddData (Notification toast) {
+        JSONObject data = new JSONObject();
+
+        try {
+            data.put("unchanged", toast.isUnchanged());
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+
+        return data;
+    }
+
+    /**
+     * Set the progress of a posted notification.
+     *
+     * @param args    The notification ID, the value and the max value.
+     * @param command The callback context used when calling back into
+     *                JavaScript.
+     */
+    private void progress (JSONArray args, CallbackContext command)
+            throws JSONException {
+
+        int id    = args.getInt(0);
+        int value = args.getInt(1);
+        int max   = args.optInt(2, 100);
+
+        ProgressQueue.getInstance(cordova.getActivity())
+                .post(id, value, max, TriggerReceiver.class,
+                      commands.getMutationLane());
+
+        command.success();
+    }
+
+    /**
+     * Make the desired notifications the only ones. Notifications with
+     * the same ID and content whose alarms are still registered are left
+     * alone, the same way schedule does. New or changed ones get
+     * scheduled and the ones no longer desired get canceled.
+     *
+     * @param toasts  The desired notifications.
+     * @param command The callback context used when calling back into
+     *                JavaScript.
+     */
+    private void sync (JSONArray toasts, CallbackContext command) {
+        Manager mgr         = getNotMgr();
+        List<Integer> stale = mgr.getIds();
+        JSONArray added     = new JSONArray();
+        JSONArray updated   = new JSONArray();
+        JSONArray canceled  = new JSONArray();
+        JSONObject result   = new JSONObject();
+        int unchanged       = 0;
+
+        for (int i = 0; i < toasts.length(); i++) {
+            JSONObject dict = toasts.optJSONObject(i);
+            Options options = new Options(dict);
+            Integer id      = options.getId();
+            boolean known   = mgr.getOptions(id) != null;
+
+            stale.remove(id);
+
+            Request request    = new Request(options);
+            Notification toast = mgr.schedule(request, TriggerReceiver.class);
+
+            if (toast.isUnchanged()) {
+                unchanged++;
+            } else
+            if (!known) {
+                added.put(id);
+                fireEvent("add", toast);
+            } else {
+                updated.put(id);
+                fireEvent("update", toast);
+            }
+        }
+
+        for (int id : stale) {
+            Notification toast = mgr.cancel(id);
+
+            if (toast != null) {
+                canceled.put(id);
+                fireEvent("cancel", toast);
+            }
+        }
+
+        try {
+            result.put("added", added);
+            result.put("updated", updated);
+            result.put("canceled", canceled);
+            result.put("unchanged", unchanged);
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+
+        command.success(result);
+    }
+
     /**
      * Update multiple local notifications.
      *
@@ -547,17 +878,46 @@ public class LocalNotification extends CordovaPlugin {
         command.success(new JSONArray(options));
     }
 
+    /**
+     * Size of the asset cache and its hit counters.
+     *
+     * @param command The callback context used when calling back into
+     *                JavaScript.
+     */
+    private void cacheStats (CallbackContext command) {
+        command.success(getAssetCache().getStats());
+    }
+
+    /**
+     * Queue depth and wait times of the command executor.
+     *
+     * @param command The callback context used when calling back into
+     *                JavaScript.
+     */
+    private void queueStats (CallbackContext command) {
+        command.success(commands.getStats());
+    }
+
+    /**
+     * Progress of the last restore after boot together with the time to
+     * the first restored notification.
+     *
+     * @param command The callback context used when calling back into
+     *                JavaScript.
+     */
+    private void restoreStats (CallbackContext command) {
+        command.success(RestoreCheckpoint.getStats(cordova.getActivity()));
+    }
+
     /**
      * Call all pending callbacks after the deviceready event has been fired.
      */
     private static synchronized void deviceready() {
         deviceready = true;
 
-        for (String js : eventQueue) {
-            sendJavascript(js);
+        for (JSONArray event : getEventQueue(cordovaActivity).drain()) {
+            dispatch(cordovaActivity, event);
         }
-
-        eventQueue.clear();
     }
 
     /**
@@ -599,7 +959,13 @@ public class LocalNotification extends CordovaPlugin {
      * @param data  Event object with additional data.
      */
     static void fireEvent (String event, Notification toast, JSONObject data) {
-        String params, js;
+        Map<String, List<String>> map = deviceready ? listeners : null;
+
+        if (map != null && !map.containsKey(event))
+            return;
+
+        JSONArray args  = new JSONArray().put(event);
+        Context context = (toast != null) ? toast.getContext() : cordovaActivity;
 
         try {
             data.put("event", event);
@@ -613,41 +979,177 @@ public class LocalNotification extends CordovaPlugin {
             e.printStackTrace();
         }
 
+        if (toast != null && map != null) {
+            args.put(getProperties(toast, map.get(event)));
+        } else
         if (toast != null) {
-            params = toast.toString() + "," + data.toString();
-        } else {
-            params = data.toString();
+            args.put(toast.getOptions().getDict());
         }
 
-        js = "cordova.plugins.notification.local.fireEvent(" +
-                "\"" + event + "\"," + params + ")";
+        args.put(data);
 
         if (launchDetails == null && !deviceready && toast != null) {
             launchDetails = new Pair<Integer, String>(toast.getId(), event);
         }
 
-        sendJavascript(js);
+        dispatch(context, args);
+    }
+
+    /**
+     * The notification properties requested by the event listeners.
+     *
+     * @param toast  The notification to pass with the event.
+     * @param fields The requested properties or null for all.
+     *
+     * @return The ID of the notification and the requested properties.
+     */
+    private static JSONObject getProperties (Notification toast,
+                                             List<String> fields) {
+        JSONObject dict = toast.getOptions().getDict();
+
+        if (fields == null)
+            return dict;
+
+        JSONObject props = new JSONObject();
+
+        try {
+            props.put("id", toast.getId());
+
+            for (String field : fields) {
+                props.putOpt(field, dict.opt(field));
+            }
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+
+        return props;
+    }
+
+    /**
+     * Remember which events JS listens to and which notification properties
+     * the listeners need. Events nobody listens to get skipped once the
+     * device is ready. Events queued before get passed as they are since
+     * the listeners might not be registered yet.
+     *
+     * @param map Event names mapped to the list of properties or to null
+     *            if a listener needs all properties.
+     */
+    private static void setListeners (JSONObject map) {
+        Map<String, List<String>> events = new HashMap<String, List<String>>();
+
+        if (map == null) {
+            listeners = null;
+            return;
+        }
+
+        Iterator<String> it = map.keys();
+
+        while (it.hasNext()) {
+            String event       = it.next();
+            JSONArray fields   = map.optJSONArray(event);
+            List<String> props = null;
+
+            if (fields != null) {
+                props = new ArrayList<String>();
+
+                for (int i = 0; i < fields.length(); i++) {
+                    props.add(fields.optString(i));
+                }
+            }
+
+            events.put(event, props);
+        }
+
+        listeners = events;
+    }
+
+    /**
+     * Register the callback through which the events get delivered to JS.
+     * The callback is kept alive for all further events.
+     *
+     * @param command The callback context used when calling back into
+     *                JavaScript.
+     */
+    private static synchronized void openEventChannel(CallbackContext command) {
+        PluginResult result = new PluginResult(PluginResult.Status.NO_RESULT);
+
+        result.setKeepCallback(true);
+        command.sendPluginResult(result);
+
+        eventChannel = command;
+    }
+
+    /**
+     * Forget the event callback as the page it belongs to is gone.
+     */
+    private static synchronized void closeEventChannel() {
+        eventChannel = null;
     }
 
     /**
-     * Use this instead of deprecated sendJavascript
+     * Deliver the event to JS. Uses the event channel if JS did open one,
+     * otherwise the events get collected for a short time slice and are
+     * then dispatched with a single script evaluation. Either way the
+     * events arrive in the order they were fired.
      *
-     * @param js JS code snippet as string.
+     * @param context The application context.
+     * @param event   The event name followed by its arguments.
      */
-    private static synchronized void sendJavascript(final String js) {
+    private static synchronized void dispatch(Context context, JSONArray event) {
+        EventQueue queue = getEventQueue(context);
+
+        if (webView == null && queue.isDurable()) {
+            queue.spill(event);
+            return;
+        }
 
         if (!deviceready || webView == null) {
-            eventQueue.add(js);
+            queue.add(event);
             return;
         }
 
-        final CordovaWebView view = webView.get();
+        if (eventChannel != null) {
+            PluginResult result = new PluginResult(
+                    PluginResult.Status.OK, new JSONArray().put(event));
 
-        ((Activity)(view.getContext())).runOnUiThread(new Runnable() {
+            result.setKeepCallback(true);
+            eventChannel.sendPluginResult(result);
+            return;
+        }
+
+        pendingEvents.add(event);
+
+        if (pendingEvents.size() > 1)
+            return;
+
+        mainHandler.postDelayed(new Runnable() {
             public void run() {
-                view.loadUrl("javascript:" + js);
+                flushEvents();
             }
-        });
+        }, EVENT_BATCH_DELAY);
+    }
+
+    /**
+     * Dispatch all pending events to the webview at once.
+     * Needs to be called from the UI thread.
+     */
+    private static void flushEvents() {
+        CordovaWebView view = (webView != null) ? webView.get() : null;
+        String js;
+
+        synchronized (LocalNotification.class) {
+            if (pendingEvents.isEmpty())
+                return;
+
+            js = "cordova.plugins.notification.local._fireEvents(" +
+                    new JSONArray(pendingEvents).toString() + ")";
+
+            pendingEvents.clear();
+        }
+
+        if (view != null) {
+            view.loadUrl("javascript:" + js);
+        }
     }
 
     /**
@@ -677,6 +1179,25 @@ public class LocalNotification extends CordovaPlugin {
         return webView != null;
     }
 
+    /**
+     * If fired events reach JS, either right now or with the next
+     * deviceready after the app got started again.
+     *
+     * @param context The application context.
+     */
+    static boolean isReceivingEvents(Context context) {
+        return isAppRunning() || getEventQueue(context).isDurable();
+    }
+
+    /**
+     * Queue for the events fired before deviceready.
+     *
+     * @param context The application context.
+     */
+    private static EventQueue getEventQueue(Context context) {
+        return EventQueue.getInstance(context);
+    }
+
     /**
      * Convert JSON array of integers to List.
      *
@@ -699,18 +1220,21 @@ public class LocalNotification extends CordovaPlugin {
         return Manager.getInstance(cordova.getActivity());
     }
 
+    /**
+     * Asset cache instance.
+     */
+    private AssetCache getAssetCache() {
+        return AssetCache.getInstance(cordova.getActivity());
+    }
+
     public void createChannel(final CallbackContext callbackContext, final JSONObject options) {
-        cordova.getThreadPool().execute(new Runnable() {
-            public void run() {
-                try {
-                    createChannel(options);
-                    callbackContext.success();
-                } catch (Exception e) {
-                    Log.e("LocalNotification", e.getMessage());
-                    callbackContext.error(e.getMessage());
-                }
-            }
-        });
+        try {
+            createChannel(options);
+            callbackContext.success();
+        } catch (Exception e) {
+            Log.e("LocalNotification", e.getMessage());
+            callbackContext.error(e.getMessage());
+        }
     }
 
     protected static NotificationChannel createChannel(final JSONObject options) throws JSONException {
@@ -812,42 +1336,34 @@ public class LocalNotification extends CordovaPlugin {
     }
 
     public void setDefaultChannel(final CallbackContext callbackContext, final JSONObject options) {
-        cordova.getThreadPool().execute(new Runnable() {
-            public void run() {
-                try {
-                    deleteChannel(defaultChannelId);
+        try {
+            deleteChannel(defaultChannelId);
 
-                    String id = options.optString("id", null);
-                    if(id != null){
-                        defaultChannelId = id;
-                    }
+            String id = options.optString("id", null);
+            if(id != null){
+                defaultChannelId = id;
+            }
 
-                    String name = options.optString("name", null);
-                    if(name != null){
-                        defaultChannelName = name;
-                    }
-                    createDefaultChannel(options);
-                    callbackContext.success();
-                } catch (Exception e) {
-                    Log.e("LocalNotification", e.getMessage());
-                    callbackContext.error(e.getMessage());
-                }
+            String name = options.optString("name", null);
+            if(name != null){
+                defaultChannelName = name;
             }
-        });
+            createDefaultChannel(options);
+            callbackContext.success();
+        } catch (Exception e) {
+            Log.e("LocalNotification", e.getMessage());
+            callbackContext.error(e.getMessage());
+        }
     }
 
     public void deleteChannel(final CallbackContext callbackContext, final String channelID) {
-        cordova.getThreadPool().execute(new Runnable() {
-            public void run() {
-                try {
-                    deleteChannel(channelID);
-                    callbackContext.success();
-                } catch (Exception e) {
-                    Log.e("LocalNotification", e.getMessage());
-                    callbackContext.error(e.getMessage());
-                }
-            }
-        });
+        try {
+            deleteChannel(channelID);
+            callbackContext.success();
+        } catch (Exception e) {
+            Log.e("LocalNotification", e.getMessage());
+            callbackContext.error(e.getMessage());
+        }
     }
 
     protected static void deleteChannel(final String channelID){
@@ -859,26 +1375,22 @@ public class LocalNotification extends CordovaPlugin {
     }
 
     public void listChannels(final CallbackContext callbackContext) {
-        cordova.getThreadPool().execute(new Runnable() {
-            public void run() {
-                try {
-                    List<NotificationChannel> notificationChannels = listChannels();
-                    JSONArray channels = new JSONArray();
-                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                        for (NotificationChannel notificationChannel : notificationChannels) {
-                            JSONObject channel = new JSONObject();
-                            channel.put("id", notificationChannel.getId());
-                            channel.put("name", notificationChannel.getName());
-                            channels.put(channel);
-                        }
-                    }
-                    callbackContext.success(channels);
-                } catch (Exception e) {
-                    Log.e("LocalNotification", e.getMessage());
-                    callbackContext.error(e.getMessage());
+        try {
+            List<NotificationChannel> notificationChannels = listChannels();
+            JSONArray channels = new JSONArray();
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                for (NotificationChannel notificationChannel : notificationChannels) {
+                    JSONObject channel = new JSONObject();
+                    channel.put("id", notificationChannel.getId());
+                    channel.put("name", notificationChannel.getName());
+                    channels.put(channel);
                 }
             }
-        });
+            callbackContext.success(channels);
+        } catch (Exception e) {
+            Log.e("LocalNotification", e.getMessage());
+            callbackContext.error(e.getMessage());
+        }
     }
 
     public static List<NotificationChannel> listChannels(){
@@ -33,6 +33,7 @@ import de.appplant.cordova.plugin.notification.Manager;
 import de.appplant.cordova.plugin.notification.Notification;
 import de.appplant.cordova.plugin.notification.Request;
 import de.appplant.cordova.plugin.notification.receiver.AbstractRestoreReceiver;
+import de.appplant.cordova.plugin.notification.receiver.RestoreCheckpoint;
 
 /**
  * This class is triggered upon reboot of the device. It needs to re-register
@@ -42,7 +43,10 @@ import de.appplant.cordova.plugin.notification.receiver.AbstractRestoreReceiver;
 public class RestoreReceiver extends AbstractRestoreReceiver {
 
     /**
-     * Called when a local notification need to be restored.
+     * Called when a local notification need to be restored. Only builds the
+     * notification if it has to be shown right now, all others just get
+     * their alarms registered again. Pending ones are not cleared, as that
+     * would drop their cursor and the origin of their elapsed trigger.
      *
      * @param request Set of notification options.
      * @param toast   Wrapper around the local notification.
@@ -53,8 +57,10 @@ public class RestoreReceiver extends AbstractRestoreReceiver {
         boolean after = date != null && date.after(new Date());
 
         if (!after && toast.isHighPrio()) {
-            toast.show();
-        } else {
+            buildNotification(new Builder(toast.getOptions())).show();
+            RestoreCheckpoint.markShown(toast.getContext());
+        } else
+        if (!after) {
             toast.clear();
         }
 
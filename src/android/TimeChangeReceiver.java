@@ -0,0 +1,57 @@
+/*
+ * Apache 2.0 License
+ *
+ * Copyright (c) Sebastian Katzer 2017
+ *
+ * This file contains Original Code and/or Modifications of Original Code
+ * as defined in and that are subject to the Apache License
+ * Version 2.0 (the 'License'). You may not use this file except in
+ * compliance with the License. Please obtain a copy of the License at
+ * http://opensource.org/licenses/Apache-2.0/ and read it before using this
+ * file.
+ *
+ * The Original Code and all software distributed under the License are
+ * distributed on an 'AS IS' basis, WITHOUT WARRANTY OF ANY KIND, EITHER
+ * EXPRESS OR IMPLIED, AND APPLE HEREBY DISCLAIMS ALL SUCH WARRANTIES,
+ * INCLUDING WITHOUT LIMITATION, ANY WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE, QUIET ENJOYMENT OR NON-INFRINGEMENT.
+ * Please see the License for the specific language governing rights and
+ * limitations under the License.
+ */
+
+package de.appplant.cordova.plugin.localnotification;
+
+import android.content.Context;
+
+import de.appplant.cordova.plugin.notification.Manager;
+import de.appplant.cordova.plugin.notification.Notification;
+import de.appplant.cordova.plugin.notification.Request;
+import de.appplant.cordova.plugin.notification.receiver.AbstractTimeChangeReceiver;
+
+/**
+ * This class is triggered when the user or the network changes the clock
+ * or the time zone. It needs to register the alarms of date matching and
+ * calendar based repeating notifications again since their trigger dates
+ * are bound to the wall clock.
+ */
+public class TimeChangeReceiver extends AbstractTimeChangeReceiver {
+
+    /**
+     * Called when the trigger dates of a local notification need to be
+     * calculated again. Notifications without any further trigger date
+     * stay as they are.
+     *
+     * @param request Set of notification options.
+     * @param toast   Wrapper around the local notification.
+     */
+    @Override
+    public void onTimeChange (Request request, Notification toast) {
+        Context ctx = toast.getContext();
+
+        if (request.getTriggerDate() == null)
+            return;
+
+        Manager.getInstance(ctx).schedule(request, TriggerReceiver.class);
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Apache 2.0 License
+ *
+ * Copyright (c) Sebastian Katzer 2017
+ *
+ * This file contains Original Code and/or Modifications of Original Code
+ * as defined in and that are subject to the Apache License
+ * Version 2.0 (the 'License'). You may not use this file except in
+ * compliance with the License. Please obtain a copy of the License at
+ * http://opensource.org/licenses/Apache-2.0/ and read it before using this
+ * file.
+ *
+ * The Original Code and all software distributed under the License are
+ * distributed on an 'AS IS' basis, WITHOUT WARRANTY OF ANY KIND, EITHER
+ * EXPRESS OR IMPLIED, AND APPLE HEREBY DISCLAIMS ALL SUCH WARRANTIES,
+ * INCLUDING WITHOUT LIMITATION, ANY WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE, QUIET ENJOYMENT OR NON-INFRINGEMENT.
+ * Please see the License for the specific language governing rights and
+ * limitations under the License.
+ */
+
+package de.appplant.cordova.plugin.localnotification;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaWebView;
+import org.apache.cordova.PluginResult;
+
+/**
+ * Callback context which passes all results to the original one and
+ * remembers if the handler of an action reported an error, so that
+ * failures sent via error() count like thrown exceptions.
+ */
+final class TrackedCallbackContext extends CallbackContext {
+
+    // The callback context of the exec() call
+    private final CallbackContext target;
+
+    // If an error result was sent
+    private volatile boolean failed = false;
+
+    /**
+     * Constructor
+     *
+     * @param target  The callback context of the exec() call.
+     * @param webView The webview of the plugin or null, it's not used as
+     *                all results go to the target.
+     */
+    TrackedCallbackContext (CallbackContext target, CordovaWebView webView) {
+        super(target.getCallbackId(), webView);
+        this.target = target;
+    }
+
+    /**
+     * If an error result was sent.
+     */
+    boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Pass the result to the original callback context.
+     *
+     * @param result The result to send to JS.
+     */
+    @Override
+    public void sendPluginResult (PluginResult result) {
+        if (result.getStatus() == PluginResult.Status.ERROR.ordinal()) {
+            failed = true;
+        }
+
+        target.sendPluginResult(result);
+    }
+
+    /**
+     * If the original callback context got its final result.
+     */
+    @Override
+    public boolean isFinished() {
+        return target.isFinished();
+    }
+
+}
@@ -25,8 +25,6 @@ import android.content.Context;
 import android.os.Bundle;
 import android.os.PowerManager;
 
-import java.util.Calendar;
-
 import de.appplant.cordova.plugin.notification.Builder;
 import de.appplant.cordova.plugin.notification.Manager;
 import de.appplant.cordova.plugin.notification.Notification;
@@ -38,8 +36,7 @@ import static android.content.Context.POWER_SERVICE;
 import static android.os.Build.VERSION.SDK_INT;
 import static android.os.Build.VERSION_CODES.LOLLIPOP;
 import static de.appplant.cordova.plugin.localnotification.LocalNotification.fireEvent;
-import static de.appplant.cordova.plugin.localnotification.LocalNotification.isAppRunning;
-import static java.util.Calendar.MINUTE;
+import static de.appplant.cordova.plugin.localnotification.LocalNotification.isReceivingEvents;
 
 /**
  * The alarm receiver is triggered when a scheduled alarm is fired. This class
@@ -74,16 +71,14 @@ public class TriggerReceiver extends AbstractTriggerReceiver {
 
         notification.show();
 
-        if (!isUpdate && isAppRunning()) {
+        if (!isUpdate && isReceivingEvents(context)) {
             fireEvent("trigger", notification);
         }
 
         if (!options.isInfiniteTrigger())
             return;
 
-        Calendar cal = Calendar.getInstance();
-        cal.add(MINUTE, 1);
-        Request req  = new Request(options, cal.getTime());
+        Request req = Request.resume(options);
 
         manager.schedule(req, this.getClass());
     }
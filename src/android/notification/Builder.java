@@ -39,12 +39,12 @@ import android.graphics.RectF;
 import android.graphics.Paint;
 import android.graphics.Canvas;
 
+import java.util.Collections;
 import java.util.List;
-import java.util.Random;
 
 import de.appplant.cordova.plugin.notification.action.Action;
 
-import static android.app.PendingIntent.FLAG_UPDATE_CURRENT;
+import static android.support.v4.app.NotificationCompat.DEFAULT_SOUND;
 import static de.appplant.cordova.plugin.notification.Notification.EXTRA_UPDATE;
 
 /**
@@ -53,15 +53,15 @@ import static de.appplant.cordova.plugin.notification.Notification.EXTRA_UPDATE;
  */
 public final class Builder {
 
+    // Extra key for the time the notification got posted first
+    private static final String EXTRA_WHEN = "NOTIFICATION_WHEN";
+
     // Application context passed by constructor
     private final Context context;
 
     // Notification options passed by JS
     private final Options options;
 
-    // To generate unique request codes
-    private final Random random = new Random();
-
     // Receiver to handle the clear event
     private Class<?> clearReceiver;
 
@@ -71,6 +71,12 @@ public final class Builder {
     // Additional extras to merge into each intent
     private Bundle extras;
 
+    // Bytes of the bitmaps set to the builder
+    private long footprint = 0;
+
+    // If the assets like large icon, pictures and sound shall be skipped
+    private boolean withoutAssets = false;
+
     /**
      * Constructor
      *
@@ -111,6 +117,17 @@ public final class Builder {
         return this;
     }
 
+    /**
+     * Skip the assets which might have to be decoded or downloaded first.
+     * The notification gets the default sound instead of a custom one.
+     *
+     * @param flag If the assets shall be skipped.
+     */
+    public Builder setWithoutAssets(boolean flag) {
+        this.withoutAssets = flag;
+        return this;
+    }
+
     /**
      * Creates the notification with all its options passed through JS.
      *
@@ -123,45 +140,34 @@ public final class Builder {
             return new Notification(context, options);
         }
 
-        Uri sound     = options.getSound();
+        Uri sound     = withoutAssets ? Uri.EMPTY : options.getSound();
+        int defaults  = options.getDefaults();
+        long when     = findPostTime();
         Bundle extras = new Bundle();
 
+        if (withoutAssets && !options.isWithoutSound()) {
+            defaults |= DEFAULT_SOUND;
+        }
+
         extras.putInt(Notification.EXTRA_ID, options.getId());
         extras.putString(Options.EXTRA_SOUND, sound.toString());
+        extras.putLong(EXTRA_WHEN, when);
 
-        builder = findOrCreateBuilder()
-                .setDefaults(options.getDefaults())
+        builder = new NotificationCompat.Builder(context, options.getChannel())
+                .setWhen(when)
+                .setDefaults(defaults)
                 .setExtras(extras)
                 .setOnlyAlertOnce(false)
                 .setChannelId(options.getChannel())
-                .setContentTitle(options.getTitle())
-                .setContentText(options.getText())
-                .setTicker(options.getText())
-                .setNumber(options.getNumber())
-                .setAutoCancel(options.isAutoClear())
-                .setOngoing(options.isSticky())
-                .setColor(options.getColor())
-                .setVisibility(options.getVisibility())
-                .setPriority(options.getPrio())
-                .setShowWhen(options.showClock())
-                .setUsesChronometer(options.showChronometer())
-                .setGroup(options.getGroup())
-                .setGroupSummary(options.getGroupSummary())
-                .setTimeoutAfter(options.getTimeout())
                 .setLights(options.getLedColor(), options.getLedOn(), options.getLedOff());
 
+        applyContent(builder);
+
         if (sound != Uri.EMPTY && !isUpdate()) {
             builder.setSound(sound);
         }
 
-        if (options.isWithProgressBar()) {
-            builder.setProgress(
-                    options.getProgressMaxValue(),
-                    options.getProgressValue(),
-                    options.isIndeterminateProgress());
-        }
-
-        if (options.hasLargeIcon()) {
+        if (options.hasLargeIcon() && !withoutAssets) {
             builder.setSmallIcon(options.getSmallIcon());
 
             Bitmap largeIcon = options.getLargeIcon();
@@ -171,8 +177,10 @@ public final class Builder {
             }
 
             builder.setLargeIcon(largeIcon);
+            footprint += getByteCount(largeIcon);
         } else {
             builder.setSmallIcon(options.getSmallIcon());
+            builder.setLargeIcon(null);
         }
 
         applyStyle(builder);
@@ -180,9 +188,70 @@ public final class Builder {
         applyDeleteReceiver(builder);
         applyContentReceiver(builder);
 
+        return new Notification(context, options, builder, footprint);
+    }
+
+    /**
+     * Applies the changed content to the builder of a posted notification.
+     * Icons, sound, pictures, actions and intents are kept as they are,
+     * so that no asset needs to be loaded again. The builder is shared
+     * with other threads, hence the lock.
+     *
+     * @param builder The builder of the posted notification.
+     *
+     * @return The notification to show again.
+     */
+    public Notification updateContent(NotificationCompat.Builder builder) {
+        synchronized (builder) {
+            applyContent(builder);
+            applyTextStyle(builder);
+
+            builder.setOnlyAlertOnce(true);
+        }
+
         return new Notification(context, options, builder);
     }
 
+    /**
+     * Set the cheap options like texts, flags and the progress bar.
+     *
+     * @param builder Local notification builder instance.
+     */
+    private void applyContent(NotificationCompat.Builder builder) {
+        builder.setContentTitle(options.getTitle())
+                .setContentText(options.getText())
+                .setTicker(options.getText())
+                .setNumber(options.getNumber())
+                .setAutoCancel(options.isAutoClear())
+                .setOngoing(options.isSticky())
+                .setColor(options.getColor())
+                .setVisibility(options.getVisibility())
+                .setPriority(options.getPrio())
+                .setShowWhen(options.showClock())
+                .setUsesChronometer(options.showChronometer())
+                .setGroup(options.getGroup())
+                .setGroupSummary(options.getGroupSummary())
+                .setTimeoutAfter(options.getTimeout());
+
+        if (options.isWithProgressBar()) {
+            builder.setProgress(
+                    options.getProgressMaxValue(),
+                    options.getProgressValue(),
+                    options.isIndeterminateProgress());
+        } else {
+            builder.setProgress(0, 0, false);
+        }
+    }
+
+    /**
+     * Bytes used by the bitmap.
+     *
+     * @param bitmap The bitmap to measure.
+     */
+    private long getByteCount(Bitmap bitmap) {
+        return (bitmap != null) ? bitmap.getByteCount() : 0;
+    }
+
     /**
      * Convert a bitmap to a circular bitmap.
      * This code has been extracted from the Phonegap Plugin Push plugin:
@@ -226,7 +295,6 @@ public final class Builder {
      */
     private void applyStyle(NotificationCompat.Builder builder) {
         Message[] messages = options.getMessages();
-        String summary     = options.getSummary();
 
         if (messages != null) {
             applyMessagingStyle(builder, messages);
@@ -240,22 +308,35 @@ public final class Builder {
             return;
         }
 
-        List<Bitmap> pics = options.getAttachments();
+        List<Bitmap> pics = withoutAssets
+                ? Collections.<Bitmap>emptyList() : options.getAttachments();
 
         if (pics.size() > 0) {
             applyBigPictureStyle(builder, pics);
             return;
         }
 
-        String text = options.getText();
+        applyTextStyle(builder);
+    }
+
+    /**
+     * Find out and set the style which depends on the text only.
+     *
+     * @param builder Local notification builder instance.
+     */
+    private void applyTextStyle(NotificationCompat.Builder builder) {
+        String summary = options.getSummary();
+        String text    = options.getText();
 
         if (text != null && text.contains("\n")) {
             applyInboxStyle(builder);
             return;
         }
 
-        if (text == null || summary == null && text.length() < 45)
+        if (text == null || summary == null && text.length() < 45) {
+            builder.setStyle(null);
             return;
+        }
 
         applyBigTextStyle(builder);
     }
@@ -299,6 +380,7 @@ public final class Builder {
                 .bigPicture(pics.get(0));
 
         builder.setStyle(style);
+        footprint += getByteCount(pics.get(0));
     }
 
     /**
@@ -371,10 +453,8 @@ public final class Builder {
             intent.putExtras(extras);
         }
 
-        int reqCode = random.nextInt();
-
-        PendingIntent deleteIntent = PendingIntent.getBroadcast(
-                context, reqCode, intent, FLAG_UPDATE_CURRENT);
+        PendingIntent deleteIntent = PendingIntentPool.getBroadcast(
+                context, options.getId(), intent);
 
         builder.setDeleteIntent(deleteIntent);
     }
@@ -391,6 +471,7 @@ public final class Builder {
             return;
 
         Intent intent = new Intent(context, clickActivity)
+                .setAction(getIntentAction(Action.CLICK_ACTION_ID))
                 .putExtra(Notification.EXTRA_ID, options.getId())
                 .putExtra(Action.EXTRA_ID, Action.CLICK_ACTION_ID)
                 .putExtra(Options.EXTRA_LAUNCH, options.isLaunchingApp())
@@ -400,10 +481,8 @@ public final class Builder {
             intent.putExtras(extras);
         }
 
-        int reqCode = random.nextInt();
-
-        PendingIntent contentIntent = PendingIntent.getService(
-                context, reqCode, intent, FLAG_UPDATE_CURRENT);
+        PendingIntent contentIntent = PendingIntentPool.getService(
+                context, options.getId(), intent);
 
         builder.setContentIntent(contentIntent);
     }
@@ -441,6 +520,7 @@ public final class Builder {
      */
     private PendingIntent getPendingIntentForAction (Action action) {
         Intent intent = new Intent(context, clickActivity)
+                .setAction(getIntentAction(action.getId()))
                 .putExtra(Notification.EXTRA_ID, options.getId())
                 .putExtra(Action.EXTRA_ID, action.getId())
                 .putExtra(Options.EXTRA_LAUNCH, action.isLaunchingApp())
@@ -450,10 +530,17 @@ public final class Builder {
             intent.putExtras(extras);
         }
 
-        int reqCode = random.nextInt();
+        return PendingIntentPool.getService(context, options.getId(), intent);
+    }
 
-        return PendingIntent.getService(
-                context, reqCode, intent, FLAG_UPDATE_CURRENT);
+    /**
+     * Intent action which is unique per notification and action, so that
+     * each of them gets its own pending intent.
+     *
+     * @param actionId The ID of the action.
+     */
+    private String getIntentAction (String actionId) {
+        return Action.EXTRA_ID + "-" + options.getIdentifier() + "-" + actionId;
     }
 
     /**
@@ -466,17 +553,24 @@ public final class Builder {
     }
 
     /**
-     * Returns a cached builder instance or creates a new one.
+     * The time the notification got posted first for updates and to keep
+     * the chronometer running, otherwise now. Only reads the cached
+     * builder, as it might be in use by another thread.
      */
-    private NotificationCompat.Builder findOrCreateBuilder() {
-        int key = options.getId();
-        NotificationCompat.Builder builder = Notification.getCachedBuilder(key);
+    private long findPostTime() {
+        long now = System.currentTimeMillis();
+        NotificationCompat.Builder cached = null;
 
-        if (builder == null) {
-            builder = new NotificationCompat.Builder(context, options.getChannel());
+        if (options.showChronometer() || isUpdate()) {
+            cached = Notification.getCachedBuilder(options.getId());
         }
 
-        return builder;
+        if (cached == null)
+            return now;
+
+        synchronized (cached) {
+            return cached.getExtras().getLong(EXTRA_WHEN, now);
+        }
     }
 
 }
@@ -0,0 +1,142 @@
+/*
+ * Apache 2.0 License
+ *
+ * Copyright (c) Sebastian Katzer 2017
+ *
+ * This file contains Original Code and/or Modifications of Original Code
+ * as defined in and that are subject to the Apache License
+ * Version 2.0 (the 'License'). You may not use this file except in
+ * compliance with the License. Please obtain a copy of the License at
+ * http://opensource.org/licenses/Apache-2.0/ and read it before using this
+ * file.
+ *
+ * The Original Code and all software distributed under the License are
+ * distributed on an 'AS IS' basis, WITHOUT WARRANTY OF ANY KIND, EITHER
+ * EXPRESS OR IMPLIED, AND APPLE HEREBY DISCLAIMS ALL SUCH WARRANTIES,
+ * INCLUDING WITHOUT LIMITATION, ANY WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE, QUIET ENJOYMENT OR NON-INFRINGEMENT.
+ * Please see the License for the specific language governing rights and
+ * limitations under the License.
+ */
+
+package de.appplant.cordova.plugin.notification;
+
+import android.support.v4.app.NotificationCompat;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the builders of the posted notifications, so that updates can
+ * reuse them instead of building from scratch. The least recently used
+ * builders get dropped once there are more than MAX_ENTRIES of them or
+ * the bitmaps they hold exceed the memory budget.
+ */
+final class BuilderCache {
+
+    // Max number of cached builders
+    private static final int MAX_ENTRIES = 32;
+
+    // Max number of bytes of the bitmaps held by the cached builders
+    private static final long MAX_BYTES = Math.min(
+            4 * 1024 * 1024, Runtime.getRuntime().maxMemory() / 32);
+
+    // Cached builders and their size by notification ID in access order
+    private static final LinkedHashMap<Integer, Entry> entries =
+            new LinkedHashMap<Integer, Entry>(16, 0.75f, true);
+
+    // Sum of the sizes of all cached builders
+    private static long bytes = 0;
+
+    /**
+     * Cache the builder of the notification.
+     *
+     * @param id      The notification ID.
+     * @param builder The builder to cache.
+     * @param size    Bytes of the bitmaps held by the builder or -1 to
+     *                keep the size known from the last time.
+     */
+    static synchronized void put (int id, NotificationCompat.Builder builder,
+                                  long size) {
+
+        Entry prev = entries.remove(id);
+
+        if (prev != null) {
+            bytes -= prev.size;
+        }
+
+        if (size < 0) {
+            size = (prev != null) ? prev.size : 0;
+        }
+
+        entries.put(id, new Entry(builder, size));
+        bytes += size;
+
+        trim();
+    }
+
+    /**
+     * The cached builder of the notification.
+     *
+     * @param id The notification ID.
+     *
+     * @return null if no builder is cached.
+     */
+    static synchronized NotificationCompat.Builder get (int id) {
+        Entry entry = entries.get(id);
+
+        return (entry != null) ? entry.builder : null;
+    }
+
+    /**
+     * Drop the builder of the notification.
+     *
+     * @param id The notification ID.
+     */
+    static synchronized void remove (int id) {
+        Entry entry = entries.remove(id);
+
+        if (entry != null) {
+            bytes -= entry.size;
+        }
+    }
+
+    /**
+     * Drop the least recently used builders until the limits are kept.
+     * The most recent builder is kept even if it exceeds the budget.
+     */
+    private static void trim() {
+        Iterator<Map.Entry<Integer, Entry>> it = entries.entrySet().iterator();
+
+        while (entries.size() > 1
+                && (entries.size() > MAX_ENTRIES || bytes > MAX_BYTES)) {
+            bytes -= it.next().getValue().size;
+            it.remove();
+        }
+    }
+
+    /**
+     * A cached builder together with its size.
+     */
+    private static final class Entry {
+
+        // The cached builder
+        final NotificationCompat.Builder builder;
+
+        // Bytes of the bitmaps held by the builder
+        final long size;
+
+        /**
+         * Constructor
+         *
+         * @param builder The cached builder.
+         * @param size    Bytes of the bitmaps held by the builder.
+         */
+        Entry (NotificationCompat.Builder builder, long size) {
+            this.builder = builder;
+            this.size    = size;
+        }
+    }
+
+}
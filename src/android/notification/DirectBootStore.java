@@ -0,0 +1,245 @@
+/*
+ * Apache 2.0 License
+ *
+ * Copyright (c) Sebastian Katzer 2017
+ *
+ * This file contains Original Code and/or Modifications of Original Code
+ * as defined in and that are subject to the Apache License
+ * Version 2.0 (the 'License'). You may not use this file except in
+ * compliance with the License. Please obtain a copy of the License at
+ * http://opensource.org/licenses/Apache-2.0/ and read it before using this
+ * file.
+ *
+ * The Original Code and all software distributed under the License are
+ * distributed on an 'AS IS' basis, WITHOUT WARRANTY OF ANY KIND, EITHER
+ * EXPRESS OR IMPLIED, AND APPLE HEREBY DISCLAIMS ALL SUCH WARRANTIES,
+ * INCLUDING WITHOUT LIMITATION, ANY WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE, QUIET ENJOYMENT OR NON-INFRINGEMENT.
+ * Please see the License for the specific language governing rights and
+ * limitations under the License.
+ */
+
+package de.appplant.cordova.plugin.notification;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.os.UserManager;
+import android.support.v4.util.Pair;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static android.app.PendingIntent.FLAG_CANCEL_CURRENT;
+import static android.content.Context.ALARM_SERVICE;
+import static android.os.Build.VERSION.SDK_INT;
+import static android.os.Build.VERSION_CODES.N;
+
+/**
+ * Scheduling metadata in the device protected storage, which is available
+ * before the user unlocks the device after boot. The content of the
+ * notifications stays in the credential protected storage. This allows to
+ * register the alarms again right after boot and to keep the triggers that
+ * go off while the device is locked until the content is available.
+ */
+public final class DirectBootStore {
+
+    // Key for private preferences of the alarms per notification
+    private static final String PREF_KEY_ALARMS = "NOTIFICATION_BOOT";
+
+    // Key for private preferences of the deferred triggers
+    private static final String PREF_KEY_DEFERRED = "NOTIFICATION_DEFERRED";
+
+    /**
+     * Save the priority and the alarms of the notification.
+     *
+     * @param context The application context.
+     * @param id      The notification ID.
+     * @param prio    The priority of the notification.
+     * @param elapsed If the alarms count the uptime since boot instead of
+     *                the wall clock time.
+     * @param intents The trigger dates with their intents.
+     */
+    static void save (Context context, int id, int prio, boolean elapsed,
+                      List<Pair<Date, Intent>> intents) {
+
+        if (SDK_INT < N)
+            return;
+
+        JSONObject entry = new JSONObject();
+        JSONArray alarms = new JSONArray();
+
+        try {
+            for (Pair<Date, Intent> pair : intents) {
+                JSONObject alarm = new JSONObject();
+
+                alarm.put("time", pair.first.getTime());
+                alarm.put("elapsed", elapsed);
+                alarm.put("intent", pair.second.toUri(Intent.URI_INTENT_SCHEME));
+                alarms.put(alarm);
+            }
+
+            entry.put("prio", prio);
+            entry.put("alarms", alarms);
+        } catch (JSONException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        getPrefs(context, PREF_KEY_ALARMS).edit()
+                .putString(String.valueOf(id), entry.toString())
+                .apply();
+    }
+
+    /**
+     * Remove the alarms of the notification.
+     *
+     * @param context The application context.
+     * @param id      The notification ID.
+     */
+    static void remove (Context context, int id) {
+        if (SDK_INT < N)
+            return;
+
+        getPrefs(context, PREF_KEY_ALARMS).edit()
+                .remove(String.valueOf(id))
+                .apply();
+    }
+
+    /**
+     * Register all alarms again which go off in future. Does not need the
+     * credential protected storage, so it works before the first unlock.
+     * The uptime restarts with the boot, hence elapsed alarms go off after
+     * the time left until their date, like Request rebases them.
+     *
+     * @param context The application context.
+     */
+    public static void rearm (Context context) {
+        AlarmManager mgr = (AlarmManager) context.getSystemService(ALARM_SERVICE);
+        long now         = System.currentTimeMillis();
+
+        if (mgr == null || SDK_INT < N)
+            return;
+
+        for (Object value : getPrefs(context, PREF_KEY_ALARMS).getAll().values()) {
+            try {
+                JSONObject entry = new JSONObject((String) value);
+                JSONArray alarms = entry.getJSONArray("alarms");
+                int prio         = entry.optInt("prio");
+
+                for (int i = 0; i < alarms.length(); i++) {
+                    JSONObject alarm = alarms.getJSONObject(i);
+                    long time        = alarm.getLong("time");
+                    boolean elapsed  = alarm.optBoolean("elapsed");
+
+                    if (time <= now)
+                        continue;
+
+                    if (elapsed) {
+                        time = SystemClock.elapsedRealtime() + time - now;
+                    }
+
+                    Intent intent    = Intent.parseUri(alarm.getString("intent"), 0);
+                    PendingIntent pi = PendingIntent.getBroadcast(
+                            context, 0, intent, FLAG_CANCEL_CURRENT);
+
+                    Notification.setAlarm(mgr, prio, time, elapsed, pi);
+                }
+            } catch (JSONException e) {
+                e.printStackTrace();
+            } catch (URISyntaxException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Keep the trigger until the device gets unlocked.
+     *
+     * @param context The application context.
+     * @param intent  The received trigger intent.
+     */
+    public static void defer (Context context, Intent intent) {
+        getPrefs(context, PREF_KEY_DEFERRED).edit()
+                .putString(intent.getAction(), intent.toUri(Intent.URI_INTENT_SCHEME))
+                .commit();
+    }
+
+    /**
+     * Pass the deferred triggers to their receivers and forget them.
+     * Needs the device to be unlocked.
+     *
+     * @param context The application context.
+     *
+     * @return The IDs of the notifications which got triggered.
+     */
+    public static List<Integer> replay (Context context) {
+        SharedPreferences prefs = getPrefs(context, PREF_KEY_DEFERRED);
+        Map<String, ?> triggers = prefs.getAll();
+        List<Integer> ids       = new ArrayList<Integer>();
+
+        if (triggers.isEmpty())
+            return ids;
+
+        prefs.edit().clear().apply();
+
+        for (Object uri : triggers.values()) {
+            try {
+                Intent intent = Intent.parseUri((String) uri, 0);
+                String cls    = intent.getComponent().getClassName();
+
+                BroadcastReceiver receiver = (BroadcastReceiver)
+                        Class.forName(cls).newInstance();
+
+                receiver.onReceive(context, intent);
+                ids.add(intent.getIntExtra(Notification.EXTRA_ID, 0));
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+
+        return ids;
+    }
+
+    /**
+     * If the credential protected storage is not available yet.
+     *
+     * @param context The application context.
+     */
+    public static boolean isLocked (Context context) {
+        if (SDK_INT < N)
+            return false;
+
+        UserManager um = (UserManager) context.getSystemService(UserManager.class);
+
+        return um == null || !um.isUserUnlocked();
+    }
+
+    /**
+     * Shared private preferences in the device protected storage.
+     *
+     * @param context The application context.
+     * @param key     The name of the preferences.
+     */
+    private static SharedPreferences getPrefs (Context context, String key) {
+        Context storage = context;
+
+        if (SDK_INT >= N) {
+            storage = context.createDeviceProtectedStorageContext();
+        }
+
+        return storage.getSharedPreferences(key, Context.MODE_PRIVATE);
+    }
+
+}
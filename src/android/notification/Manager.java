@@ -31,20 +31,27 @@ import android.content.SharedPreferences;
 import android.service.notification.StatusBarNotification;
 import android.support.v4.app.NotificationManagerCompat;
 
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import de.appplant.cordova.plugin.badge.BadgeImpl;
+import de.appplant.cordova.plugin.notification.util.AssetUtil;
 
 import static android.os.Build.VERSION.SDK_INT;
 import static android.os.Build.VERSION_CODES.M;
 import static android.os.Build.VERSION_CODES.O;
 import static android.support.v4.app.NotificationManagerCompat.IMPORTANCE_DEFAULT;
+import static de.appplant.cordova.plugin.notification.Notification.PREF_KEY_CALENDAR;
 import static de.appplant.cordova.plugin.notification.Notification.PREF_KEY_ID;
+import static de.appplant.cordova.plugin.notification.Options.DEFAULT_ICON;
 import static de.appplant.cordova.plugin.notification.Notification.Type.TRIGGERED;
 
 /**
@@ -219,6 +226,36 @@ public final class Manager {
         return ids;
     }
 
+    /**
+     * IDs of the notifications whose trigger dates depend on the calendar,
+     * ordered by their next trigger date.
+     */
+    public List<Integer> getCalendarBasedIds() {
+        final Map<String, ?> dates = context.getSharedPreferences(
+                PREF_KEY_CALENDAR, Context.MODE_PRIVATE).getAll();
+
+        List<String> keys = new ArrayList<String>(dates.keySet());
+        List<Integer> ids = new ArrayList<Integer>();
+
+        Collections.sort(keys, new Comparator<String>() {
+            @Override
+            public int compare (String a, String b) {
+                long diff = (Long) dates.get(a) - (Long) dates.get(b);
+                return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+            }
+        });
+
+        for (String key : keys) {
+            try {
+                ids.add(Integer.parseInt(key));
+            } catch (NumberFormatException e) {
+                e.printStackTrace();
+            }
+        }
+
+        return ids;
+    }
+
     /**
      * All local notification IDs for given type.
      *
@@ -370,6 +407,38 @@ public final class Manager {
         return new Notification(context, options);
     }
 
+    /**
+     * Resolve the resource IDs of all icons referenced by the stored
+     * notifications, so that later builds can take them from the cache.
+     */
+    public void preloadResources() {
+        AssetUtil assets = AssetUtil.getInstance(context);
+
+        assets.getResId(DEFAULT_ICON);
+
+        for (JSONObject dict : getOptions()) {
+            String icon       = dict.optString("icon", "");
+            JSONArray actions = dict.optJSONArray("actions");
+
+            assets.getResId(dict.optString("smallIcon", DEFAULT_ICON));
+
+            if (icon.startsWith("res:")) {
+                assets.getResId(icon);
+            }
+
+            if (actions == null)
+                continue;
+
+            for (int i = 0; i < actions.length(); i++) {
+                JSONObject action = actions.optJSONObject(i);
+
+                if (action != null) {
+                    assets.getResId(action.optString("icon"));
+                }
+            }
+        }
+    }
+
     /**
      * Set the badge number of the app icon.
      *
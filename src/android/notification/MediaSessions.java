@@ -0,0 +1,103 @@
+/*
+ * Apache 2.0 License
+ *
+ * Copyright (c) Sebastian Katzer 2017
+ *
+ * This file contains Original Code and/or Modifications of Original Code
+ * as defined in and that are subject to the Apache License
+ * Version 2.0 (the 'License'). You may not use this file except in
+ * compliance with the License. Please obtain a copy of the License at
+ * http://opensource.org/licenses/Apache-2.0/ and read it before using this
+ * file.
+ *
+ * The Original Code and all software distributed under the License are
+ * distributed on an 'AS IS' basis, WITHOUT WARRANTY OF ANY KIND, EITHER
+ * EXPRESS OR IMPLIED, AND APPLE HEREBY DISCLAIMS ALL SUCH WARRANTIES,
+ * INCLUDING WITHOUT LIMITATION, ANY WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE, QUIET ENJOYMENT OR NON-INFRINGEMENT.
+ * Please see the License for the specific language governing rights and
+ * limitations under the License.
+ */
+
+package de.appplant.cordova.plugin.notification;
+
+import android.content.Context;
+import android.support.v4.media.session.MediaSessionCompat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of the media sessions used by media style notifications. Each
+ * session gets created once per tag and is reused by all builds and
+ * updates. Several notifications can share the tag, so the session gets
+ * released once no notification uses it anymore.
+ */
+final class MediaSessions {
+
+    // Sessions by their tag
+    private static final Map<String, MediaSessionCompat> sessions =
+            new HashMap<String, MediaSessionCompat>();
+
+    // Tag of the session used per notification ID
+    private static final Map<Integer, String> users =
+            new HashMap<Integer, String>();
+
+    /**
+     * The session for the tag, created on first use. Registers the
+     * notification as a user of the session and releases the session it
+     * used before if the tag changed.
+     *
+     * @param context The application context.
+     * @param tag     The tag of the session.
+     * @param id      The ID of the notification using the session.
+     */
+    static synchronized MediaSessionCompat get (Context context, String tag,
+                                                int id) {
+
+        String previous            = users.put(id, tag);
+        MediaSessionCompat session = sessions.get(tag);
+
+        if (previous != null && !previous.equals(tag)) {
+            releaseIfUnused(previous);
+        }
+
+        if (session == null) {
+            session = new MediaSessionCompat(context.getApplicationContext(), tag);
+            sessions.put(tag, session);
+        }
+
+        return session;
+    }
+
+    /**
+     * Unregister the notification from its session and release the
+     * session if no other notification uses it.
+     *
+     * @param id The ID of the notification.
+     */
+    static synchronized void release (int id) {
+        String tag = users.remove(id);
+
+        if (tag != null) {
+            releaseIfUnused(tag);
+        }
+    }
+
+    /**
+     * Release the session for the tag if no notification uses it.
+     *
+     * @param tag The tag of the session.
+     */
+    private static void releaseIfUnused (String tag) {
+        if (users.containsValue(tag))
+            return;
+
+        MediaSessionCompat session = sessions.remove(tag);
+
+        if (session != null) {
+            session.release();
+        }
+    }
+
+}
@@ -29,25 +29,30 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.net.Uri;
+import android.os.Bundle;
+import android.os.SystemClock;
 import android.service.notification.StatusBarNotification;
 import android.support.v4.app.NotificationCompat;
 import android.support.v4.util.ArraySet;
 import android.support.v4.util.Pair;
 import android.util.Log;
-import android.util.SparseArray;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
+import static android.app.AlarmManager.ELAPSED_REALTIME;
+import static android.app.AlarmManager.ELAPSED_REALTIME_WAKEUP;
 import static android.app.AlarmManager.RTC;
 import static android.app.AlarmManager.RTC_WAKEUP;
 import static android.app.PendingIntent.FLAG_CANCEL_CURRENT;
+import static android.app.PendingIntent.FLAG_NO_CREATE;
 import static android.os.Build.VERSION.SDK_INT;
 import static android.os.Build.VERSION_CODES.M;
 import static android.support.v4.app.NotificationCompat.PRIORITY_HIGH;
@@ -77,8 +82,21 @@ public final class Notification {
     // Key for private preferences
     private static final String PREF_KEY_PID = "NOTIFICATION_PID";
 
-    // Cache for the builder instances
-    private static SparseArray<NotificationCompat.Builder> cache = null;
+    // Key for private preferences
+    static final String PREF_KEY_HASH = "NOTIFICATION_HASH";
+
+    // Key for private preferences
+    static final String PREF_KEY_CALENDAR = "NOTIFICATION_CALENDAR";
+
+    // Options which do not affect the posted notification
+    private static final List<String> META_KEYS = Arrays.asList(
+            "data", "badge", "wakeup", "foreground");
+
+    // Options which can be applied to a posted notification in place
+    private static final List<String> CONTENT_KEYS = Arrays.asList(
+            "title", "text", "summary", "number", "progressBar", "color",
+            "sticky", "autoClear", "lockscreen", "priority", "clock",
+            "group", "groupSummary", "timeoutAfter");
 
     // Application context passed by constructor
     private final Context context;
@@ -89,6 +107,12 @@ public final class Notification {
     // Builder with full configuration
     private final NotificationCompat.Builder builder;
 
+    // Bytes of the bitmaps held by the builder or -1 if unknown
+    private final long footprint;
+
+    // If the last schedule call found the same notification already scheduled
+    private boolean unchanged = false;
+
     /**
      * Constructor
      *
@@ -97,9 +121,23 @@ public final class Notification {
      * @param builder Pre-configured notification builder.
      */
     Notification (Context context, Options options, NotificationCompat.Builder builder) {
-        this.context  = context;
-        this.options  = options;
-        this.builder  = builder;
+        this(context, options, builder, -1);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param context   Application context.
+     * @param options   Parsed notification options.
+     * @param builder   Pre-configured notification builder.
+     * @param footprint Bytes of the bitmaps held by the builder.
+     */
+    Notification (Context context, Options options,
+                  NotificationCompat.Builder builder, long footprint) {
+        this.context   = context;
+        this.options   = options;
+        this.builder   = builder;
+        this.footprint = footprint;
     }
 
     /**
@@ -109,9 +147,10 @@ public final class Notification {
      * @param options Parsed notification options.
      */
     public Notification(Context context, Options options) {
-        this.context  = context;
-        this.options  = options;
-        this.builder  = null;
+        this.context   = context;
+        this.options   = options;
+        this.builder   = null;
+        this.footprint = 0;
     }
 
     /**
@@ -149,6 +188,14 @@ public final class Notification {
         return getOptions().getPrio() >= PRIORITY_HIGH;
     }
 
+    /**
+     * If the last schedule call was skipped since the same notification
+     * with the same content was already scheduled.
+     */
+    public boolean isUnchanged() {
+        return unchanged;
+    }
+
     /**
      * Notification type can be one of triggered or scheduled.
      */
@@ -177,8 +224,19 @@ public final class Notification {
         Set<String> ids                  = new ArraySet<String>();
         AlarmManager mgr                 = getAlarmMgr();
 
+        unchanged = request.isAnchored() && isScheduledAsIs(receiver);
+
+        if (unchanged)
+            return;
+
         cancelScheduledAlarms();
 
+        if (!request.isResumed()) {
+            getPrefs(Request.PREF_KEY_CURSOR).edit()
+                    .remove(options.getIdentifier())
+                    .apply();
+        }
+
         do {
             Date date = request.getTriggerDate();
 
@@ -190,7 +248,8 @@ public final class Notification {
             Intent intent = new Intent(context, receiver)
                     .setAction(PREF_KEY_ID + request.getIdentifier())
                     .putExtra(Notification.EXTRA_ID, options.getId())
-                    .putExtra(Request.EXTRA_OCCURRENCE, request.getOccurrence());
+                    .putExtra(Request.EXTRA_OCCURRENCE, request.getOccurrence())
+                    .putExtra(Request.EXTRA_DATE, date.getTime());
 
             ids.add(intent.getAction());
             intents.add(new Pair<Date, Intent>(date, intent));
@@ -203,44 +262,84 @@ public final class Notification {
         }
 
         persist(ids);
+        index(request, intents.get(0).first);
 
         if (!options.isInfiniteTrigger()) {
             Intent last = intents.get(intents.size() - 1).second;
             last.putExtra(Request.EXTRA_LAST, true);
         }
 
+        boolean elapsed = request.isElapsed();
+        boolean armed   = true;
+
+        DirectBootStore.save(context, getId(), options.getPrio(), elapsed, intents);
+
         for (Pair<Date, Intent> pair : intents) {
             Date date     = pair.first;
             long time     = date.getTime();
             Intent intent = pair.second;
+            boolean due   = !date.after(new Date());
+
+            if (elapsed) {
+                time = request.getElapsedTime(date);
+                due  = time <= SystemClock.elapsedRealtime();
+            }
 
-            if (!date.after(new Date()) && trigger(intent, receiver))
+            if (due && trigger(intent, receiver))
                 continue;
 
             PendingIntent pi = PendingIntent.getBroadcast(
                     context, 0, intent, FLAG_CANCEL_CURRENT);
 
-            try {
-                switch (options.getPrio()) {
-                    case PRIORITY_MIN:
-                        mgr.setExact(RTC, time, pi);
-                        break;
-                    case PRIORITY_MAX:
-                        if (SDK_INT >= M) {
-                            mgr.setExactAndAllowWhileIdle(RTC_WAKEUP, time, pi);
-                        } else {
-                            mgr.setExact(RTC, time, pi);
-                        }
-                        break;
-                    default:
-                        mgr.setExact(RTC_WAKEUP, time, pi);
-                        break;
-                }
-            } catch (Exception ignore) {
-                // Samsung devices have a known bug where a 500 alarms limit
-                // can crash the app
+            armed &= setAlarm(mgr, options.getPrio(), time, elapsed, pi);
+        }
+
+        if (!armed) {
+            forgetHash();
+        }
+    }
+
+    /**
+     * Set the alarm with the type that fits to the priority.
+     *
+     * @param mgr     The alarm manager.
+     * @param prio    The priority of the notification.
+     * @param time    The time in ms when the alarm shall go off.
+     * @param elapsed If the time is the uptime since boot instead of the
+     *                wall clock time.
+     * @param pi      The pending intent to broadcast.
+     *
+     * @return false if the alarm could not be set.
+     */
+    static boolean setAlarm (AlarmManager mgr, int prio, long time,
+                             boolean elapsed, PendingIntent pi) {
+
+        int wakeup = elapsed ? ELAPSED_REALTIME_WAKEUP : RTC_WAKEUP;
+        int sleep  = elapsed ? ELAPSED_REALTIME : RTC;
+
+        try {
+            switch (prio) {
+                case PRIORITY_MIN:
+                    mgr.setExact(sleep, time, pi);
+                    break;
+                case PRIORITY_MAX:
+                    if (SDK_INT >= M) {
+                        mgr.setExactAndAllowWhileIdle(wakeup, time, pi);
+                    } else {
+                        mgr.setExact(sleep, time, pi);
+                    }
+                    break;
+                default:
+                    mgr.setExact(wakeup, time, pi);
+                    break;
             }
+        } catch (Exception ignore) {
+            // Samsung devices have a known bug where a 500 alarms limit
+            // can crash the app
+            return false;
         }
+
+        return true;
     }
 
     /**
@@ -270,9 +369,11 @@ public final class Notification {
      * Clear the local notification without canceling repeating alarms.
      */
     public void clear() {
-        getNotMgr().cancel(getId());
+        dismiss();
         if (isRepeating()) return;
         unpersist();
+        releaseMediaSession();
+        PendingIntentPool.release(getId());
     }
 
     /**
@@ -281,8 +382,75 @@ public final class Notification {
     public void cancel() {
         cancelScheduledAlarms();
         unpersist();
-        getNotMgr().cancel(getId());
-        clearCache();
+        dismiss();
+        releaseMediaSession();
+        PendingIntentPool.release(getId());
+    }
+
+    /**
+     * Remove the notification from the status bar and drop its pending
+     * progress values. Holds the lock of the cached builder, so that a
+     * progress post in flight cannot show it again.
+     */
+    private void dismiss() {
+        NotificationCompat.Builder cached = getCachedBuilder(getId());
+
+        ProgressQueue.discard(getId());
+
+        if (cached == null) {
+            getNotMgr().cancel(getId());
+            return;
+        }
+
+        synchronized (cached) {
+            clearCache();
+            getNotMgr().cancel(getId());
+        }
+    }
+
+    /**
+     * Release the media session used by the notification unless other
+     * notifications still use it.
+     */
+    private void releaseMediaSession() {
+        MediaSessions.release(getId());
+    }
+
+    /**
+     * If the notification is stored with the same content and all its
+     * alarms are registered. Alarms get lost on reboot although their
+     * intent actions are still stored, hence ask the system for them.
+     * The pending intents outlive alarms which fired or failed to be set,
+     * so the stored hash gets removed in those cases.
+     *
+     * @param receiver Receiver to handle the trigger event.
+     */
+    private boolean isScheduledAsIs(Class<?> receiver) {
+        String id           = options.getIdentifier();
+        String hash         = getPrefs(PREF_KEY_HASH).getString(id, null);
+        Set<String> actions = getPrefs(PREF_KEY_PID).getStringSet(id, null);
+
+        if (actions == null || actions.isEmpty() || !options.getHash().equals(hash))
+            return false;
+
+        for (String action : actions) {
+            Intent intent = new Intent(context, receiver).setAction(action);
+
+            if (PendingIntent.getBroadcast(context, 0, intent, FLAG_NO_CREATE) == null)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Remove the stored hash, so that the alarms do not count as
+     * registered until the notification gets scheduled again.
+     */
+    private void forgetHash() {
+        getPrefs(PREF_KEY_HASH).edit()
+                .remove(options.getIdentifier())
+                .apply();
     }
 
     /**
@@ -314,17 +482,52 @@ public final class Notification {
     }
 
     /**
-     * Present the local notification to user.
+     * Remember the occurrence the trigger intent was scheduled for, so that
+     * the next request can continue from it. Intents without a trigger date
+     * like the ones for updates are ignored. Unless it was the last one,
+     * the alarms do not count as registered until the next occurrence got
+     * scheduled.
+     *
+     * @param bundle The extras of the trigger intent.
+     */
+    public void setCursor (Bundle bundle) {
+        long date         = bundle.getLong(Request.EXTRA_DATE, 0);
+        JSONObject cursor = new JSONObject();
+
+        if (date == 0)
+            return;
+
+        if (!bundle.getBoolean(Request.EXTRA_LAST, false)) {
+            forgetHash();
+        }
+
+        try {
+            cursor.put("occurrence", bundle.getInt(Request.EXTRA_OCCURRENCE));
+            cursor.put("date", date);
+            cursor.put("fired", System.currentTimeMillis());
+        } catch (JSONException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        getPrefs(Request.PREF_KEY_CURSOR).edit()
+                .putString(options.getIdentifier(), cursor.toString())
+                .apply();
+    }
+
+    /**
+     * Present the local notification to user. Once cached, the builder is
+     * shared with other threads, hence the lock.
      */
     public void show() {
         if (builder == null) return;
 
-        if (options.showChronometer()) {
-            cacheBuilder();
-        }
+        cacheBuilder();
 
-        grantPermissionToPlaySoundFromExternal();
-        getNotMgr().notify(getId(), builder.build());
+        synchronized (builder) {
+            grantPermissionToPlaySoundFromExternal();
+            getNotMgr().notify(getId(), builder.build());
+        }
     }
 
     /**
@@ -334,11 +537,31 @@ public final class Notification {
      * @param receiver Receiver to handle the trigger event.
      */
     void update (JSONObject updates, Class<?> receiver) {
+        List<String> changes = getChangedKeys(updates);
+
+        if (changes.isEmpty())
+            return;
+
         mergeJSONObjects(updates);
-        persist(null);
 
-        if (getType() != Type.TRIGGERED)
+        if (changes.remove("trigger")) {
+            schedule(new Request(options), receiver);
+        } else {
+            persist(null);
+        }
+
+        changes.removeAll(META_KEYS);
+
+        if (changes.isEmpty() || getType() != Type.TRIGGERED)
+            return;
+
+        NotificationCompat.Builder cached = getCachedBuilder(getId());
+
+        if (cached != null && CONTENT_KEYS.containsAll(changes)
+                && !options.hasRichStyle()) {
+            new Builder(options).updateContent(cached).show();
             return;
+        }
 
         Intent intent = new Intent(context, receiver)
                 .setAction(PREF_KEY_ID + options.getId())
@@ -348,6 +571,39 @@ public final class Notification {
         trigger(intent, receiver);
     }
 
+    /**
+     * Merge the updates into the stored options without rebuilding the
+     * posted notification or touching its alarms.
+     *
+     * @param updates The properties to update.
+     */
+    void merge (JSONObject updates) {
+        mergeJSONObjects(updates);
+        persist(null);
+    }
+
+    /**
+     * The keys of the updates whose values differ from the current ones.
+     *
+     * @param updates The properties to update.
+     */
+    private List<String> getChangedKeys (JSONObject updates) {
+        JSONObject dict      = options.getDict();
+        List<String> changes = new ArrayList<String>();
+        Iterator it          = updates.keys();
+
+        while (it.hasNext()) {
+            String key = (String) it.next();
+            String val = Options.toCanonicalJSON(updates.opt(key));
+
+            if (!val.equals(Options.toCanonicalJSON(dict.opt(key)))) {
+                changes.add(key);
+            }
+        }
+
+        return changes;
+    }
+
     /**
      * Encode options to JSON.
      */
@@ -369,16 +625,27 @@ public final class Notification {
      * Preferences. This will allow the application to restore the notification
      * upon device reboot, app restart, retrieve notifications, aso.
      *
+     * The hash marks the alarms as registered. Without a list of intent
+     * actions the alarms stay as they are, hence the hash only gets
+     * replaced if one is still stored.
+     *
      * @param ids List of intent actions to persist.
      */
     private void persist (Set<String> ids) {
-        String id = options.getIdentifier();
+        String id                = options.getIdentifier();
+        SharedPreferences hashes = getPrefs(PREF_KEY_HASH);
         SharedPreferences.Editor editor;
 
         editor = getPrefs(PREF_KEY_ID).edit();
         editor.putString(id, options.toString());
         editor.apply();
 
+        if (ids != null || hashes.contains(id)) {
+            editor = hashes.edit();
+            editor.putString(id, options.getHash());
+            editor.apply();
+        }
+
         if (ids == null)
             return;
 
@@ -387,11 +654,34 @@ public final class Notification {
         editor.apply();
     }
 
+    /**
+     * Keep the next trigger date of notifications whose dates depend on the
+     * calendar, so that only those need to be calculated again after the
+     * clock or the time zone has changed.
+     *
+     * @param request The scheduled request.
+     * @param date    The next trigger date.
+     */
+    private void index (Request request, Date date) {
+        SharedPreferences.Editor editor = getPrefs(PREF_KEY_CALENDAR).edit();
+        String id                       = options.getIdentifier();
+
+        if (request.isCalendarBased()) {
+            editor.putLong(id, date.getTime());
+        } else {
+            editor.remove(id);
+        }
+
+        editor.apply();
+    }
+
     /**
      * Remove the notification from the Android shared Preferences.
      */
     private void unpersist () {
-        String[] keys = { PREF_KEY_ID, PREF_KEY_PID };
+        String[] keys = { PREF_KEY_ID, PREF_KEY_PID, PREF_KEY_HASH,
+                          PREF_KEY_CALENDAR, Request.PREF_KEY_CURSOR,
+                          Request.PREF_KEY_ELAPSED };
         String id     = options.getIdentifier();
         SharedPreferences.Editor editor;
 
@@ -400,6 +690,8 @@ public final class Notification {
             editor.remove(id);
             editor.apply();
         }
+
+        DirectBootStore.remove(context, getId());
     }
 
     /**
@@ -439,32 +731,26 @@ public final class Notification {
      * Caches the builder instance so it can be used later.
      */
     private void cacheBuilder() {
-
-        if (cache == null) {
-            cache = new SparseArray<NotificationCompat.Builder>();
-        }
-
-        cache.put(getId(), builder);
+        BuilderCache.put(getId(), builder, footprint);
     }
 
     /**
-     * Find the cached builder instance.
+     * Find the cached builder instance. Callers have to lock on the
+     * builder while they change or build it.
      *
      * @param key The key under where to look for the builder.
      *
      * @return null if no builder instance could be found.
      */
     static NotificationCompat.Builder getCachedBuilder (int key) {
-        return (cache != null) ? cache.get(key) : null;
+        return BuilderCache.get(key);
     }
 
     /**
-     * Caches the builder instance so it can be used later.
+     * Removes the cached builder instance.
      */
     private void clearCache () {
-        if (cache != null) {
-            cache.delete(getId());
-        }
+        BuilderCache.remove(getId());
     }
 
     /**
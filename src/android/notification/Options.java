@@ -35,9 +35,13 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.UUID;
 
 import de.appplant.cordova.plugin.notification.action.Action;
 import de.appplant.cordova.plugin.notification.action.ActionGroup;
@@ -65,7 +69,7 @@ public final class Options {
     public static final String EXTRA_LAUNCH = "NOTIFICATION_LAUNCH";
 
     // Default icon path
-    private static final String DEFAULT_ICON = "res://icon";
+    static final String DEFAULT_ICON = "res://icon";
 
     // Default icon type
     private static final String DEFAULT_ICON_TYPE = "square";
@@ -123,6 +127,21 @@ public final class Options {
         return options.toString();
     }
 
+    /**
+     * Hash of the options which does not depend on the order of the keys.
+     * Two notifications with the same hash have the same content.
+     */
+    public String getHash() {
+        String json = toCanonicalJSON(options);
+
+        try {
+            return UUID.nameUUIDFromBytes(json.getBytes("UTF-8")).toString();
+        } catch (UnsupportedEncodingException e) {
+            e.printStackTrace();
+            return json;
+        }
+    }
+
     /**
      * Gets the ID for the local notification.
      *
@@ -411,7 +430,7 @@ public final class Options {
     /**
      * If the phone should play no sound.
      */
-    private boolean isWithoutSound() {
+    boolean isWithoutSound() {
         Object value = options.opt("sound");
         return value == null || value.equals(false);
     }
@@ -617,10 +636,10 @@ public final class Options {
         }
 
         if (groupId != null) {
-            group = ActionGroup.lookup(groupId);
+            group = ActionGroup.lookup(context, groupId);
         } else
         if (actions != null && actions.length() > 0) {
-            group = ActionGroup.parse(context, actions);
+            group = ActionGroup.lookupInline(context, actions);
         }
 
         return (group != null) ? group.getActions() : null;
@@ -663,14 +682,93 @@ public final class Options {
      * @return null if there no session.
      */
     MediaSessionCompat.Token getMediaSessionToken() {
-        String tag = options.optString("mediaSession", null);
+        String tag = getMediaSessionTag();
 
         if (tag == null)
             return null;
 
-        MediaSessionCompat session = new MediaSessionCompat(context, tag);
+        return MediaSessions.get(context, tag, getId()).getSessionToken();
+    }
+
+    /**
+     * Gets the tag of the media session.
+     *
+     * @return null if there no session.
+     */
+    String getMediaSessionTag() {
+        return options.optString("mediaSession", null);
+    }
+
+    /**
+     * If the style of the notification depends on more than its text,
+     * like messages, pictures or a media session.
+     */
+    boolean hasRichStyle() {
+        JSONArray pics = options.optJSONArray("attachments");
+
+        return options.opt("text") instanceof JSONArray
+                || !options.isNull("mediaSession")
+                || pics != null && pics.length() > 0;
+    }
+
+    /**
+     * The value as JSON with the keys of all objects sorted, so that equal
+     * values result in the same string.
+     *
+     * @param value The JSON value to convert.
+     */
+    static String toCanonicalJSON(Object value) {
+        StringBuilder json = new StringBuilder();
+
+        appendCanonical(json, value);
+
+        return json.toString();
+    }
+
+    /**
+     * Append the value as JSON with the keys of all objects sorted.
+     *
+     * @param json  The buffer to append to.
+     * @param value The JSON value to append.
+     */
+    private static void appendCanonical(StringBuilder json, Object value) {
+        if (value instanceof JSONObject) {
+            JSONObject dict     = (JSONObject) value;
+            List<String> keys   = new ArrayList<String>();
+            Iterator<String> it = dict.keys();
+
+            while (it.hasNext()) {
+                keys.add(it.next());
+            }
+
+            Collections.sort(keys);
+            json.append('{');
 
-        return session.getSessionToken();
+            for (int i = 0; i < keys.size(); i++) {
+                if (i > 0) json.append(',');
+                json.append(JSONObject.quote(keys.get(i))).append(':');
+                appendCanonical(json, dict.opt(keys.get(i)));
+            }
+
+            json.append('}');
+        } else
+        if (value instanceof JSONArray) {
+            JSONArray list = (JSONArray) value;
+
+            json.append('[');
+
+            for (int i = 0; i < list.length(); i++) {
+                if (i > 0) json.append(',');
+                appendCanonical(json, list.opt(i));
+            }
+
+            json.append(']');
+        } else
+        if (value instanceof String) {
+            json.append(JSONObject.quote((String) value));
+        } else {
+            json.append(value);
+        }
     }
 
     /**
@@ -0,0 +1,199 @@
+/*
+ * Apache 2.0 License
+ *
+ * Copyright (c) Sebastian Katzer 2017
+ *
+ * This file contains Original Code and/or Modifications of Original Code
+ * as defined in and that are subject to the Apache License
+ * Version 2.0 (the 'License'). You may not use this file except in
+ * compliance with the License. Please obtain a copy of the License at
+ * http://opensource.org/licenses/Apache-2.0/ and read it before using this
+ * file.
+ *
+ * The Original Code and all software distributed under the License are
+ * distributed on an 'AS IS' basis, WITHOUT WARRANTY OF ANY KIND, EITHER
+ * EXPRESS OR IMPLIED, AND APPLE HEREBY DISCLAIMS ALL SUCH WARRANTIES,
+ * INCLUDING WITHOUT LIMITATION, ANY WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE, QUIET ENJOYMENT OR NON-INFRINGEMENT.
+ * Please see the License for the specific language governing rights and
+ * limitations under the License.
+ */
+
+package de.appplant.cordova.plugin.notification;
+
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static android.app.PendingIntent.FLAG_UPDATE_CURRENT;
+
+/**
+ * Pool of the pending intents for the click, clear and action events.
+ * Each intent has a unique action per notification and event together
+ * with the notification ID as its request code, so that the system keeps
+ * a single record per event. As long as the intent does not change, the
+ * pooled pending intent is reused without asking the system again. The
+ * least recently used entries get dropped from the pool once there are
+ * more than MAX_ENTRIES of them, their system records stay untouched.
+ */
+final class PendingIntentPool {
+
+    // Max number of pooled pending intents
+    private static final int MAX_ENTRIES = 128;
+
+    // Pooled pending intents by their intent action in access order
+    private static final Map<String, Entry> entries =
+            new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry (Map.Entry<String, Entry> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+    /**
+     * Pending intent to start the service.
+     *
+     * @param context The application context.
+     * @param id      The notification ID.
+     * @param intent  The intent with a unique action.
+     */
+    static PendingIntent getService (Context context, int id, Intent intent) {
+        return get(context, id, intent, false);
+    }
+
+    /**
+     * Pending intent to send the broadcast.
+     *
+     * @param context The application context.
+     * @param id      The notification ID.
+     * @param intent  The intent with a unique action.
+     */
+    static PendingIntent getBroadcast (Context context, int id, Intent intent) {
+        return get(context, id, intent, true);
+    }
+
+    /**
+     * Cancel and forget all pending intents of the notification.
+     *
+     * @param id The notification ID.
+     */
+    static synchronized void release (int id) {
+        Iterator<Entry> it = entries.values().iterator();
+
+        while (it.hasNext()) {
+            Entry entry = it.next();
+
+            if (entry.id != id)
+                continue;
+
+            entry.pi.cancel();
+            it.remove();
+        }
+    }
+
+    /**
+     * The pooled pending intent or a new one if the intent has changed.
+     *
+     * @param context   The application context.
+     * @param id        The notification ID.
+     * @param intent    The intent with a unique action.
+     * @param broadcast If the intent is for a receiver or for a service.
+     */
+    private static synchronized PendingIntent get (Context context, int id,
+                                                   Intent intent,
+                                                   boolean broadcast) {
+
+        Entry entry = entries.get(intent.getAction());
+
+        if (entry != null && entry.id == id && entry.matches(intent))
+            return entry.pi;
+
+        PendingIntent pi;
+
+        if (broadcast) {
+            pi = PendingIntent.getBroadcast(context, id, intent, FLAG_UPDATE_CURRENT);
+        } else {
+            pi = PendingIntent.getService(context, id, intent, FLAG_UPDATE_CURRENT);
+        }
+
+        entries.put(intent.getAction(), new Entry(id, intent, pi));
+
+        return pi;
+    }
+
+    /**
+     * If both bundles hold the same values. Nested bundles and arrays are
+     * compared by their content, all other values by equals.
+     *
+     * @param a The first bundle.
+     * @param b The second bundle.
+     */
+    private static boolean equals (Bundle a, Bundle b) {
+        if (a == null || b == null)
+            return a == b;
+
+        if (!a.keySet().equals(b.keySet()))
+            return false;
+
+        for (String key : a.keySet()) {
+            Object x = a.get(key);
+            Object y = b.get(key);
+
+            if (x instanceof Bundle && y instanceof Bundle) {
+                if (!equals((Bundle) x, (Bundle) y))
+                    return false;
+            } else
+            if (!Arrays.deepEquals(new Object[] { x }, new Object[] { y })) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * A pooled pending intent.
+     */
+    private static final class Entry {
+
+        // The notification ID
+        final int id;
+
+        // Copy of the intent including its extras
+        final Intent intent;
+
+        // The pending intent
+        final PendingIntent pi;
+
+        /**
+         * Constructor
+         *
+         * @param id     The notification ID.
+         * @param intent The intent to copy.
+         * @param pi     The pending intent.
+         */
+        Entry (int id, Intent intent, PendingIntent pi) {
+            this.id     = id;
+            this.intent = new Intent(intent);
+            this.pi     = pi;
+        }
+
+        /**
+         * If the intent equals the pooled one including flags and extras.
+         *
+         * @param other The intent to compare with.
+         */
+        boolean matches (Intent other) {
+            return intent.filterEquals(other)
+                    && intent.getFlags() == other.getFlags()
+                    && PendingIntentPool.equals(intent.getExtras(), other.getExtras());
+        }
+    }
+
+}
@@ -0,0 +1,328 @@
+/*
+ * Apache 2.0 License
+ *
+ * Copyright (c) Sebastian Katzer 2017
+ *
+ * This file contains Original Code and/or Modifications of Original Code
+ * as defined in and that are subject to the Apache License
+ * Version 2.0 (the 'License'). You may not use this file except in
+ * compliance with the License. Please obtain a copy of the License at
+ * http://opensource.org/licenses/Apache-2.0/ and read it before using this
+ * file.
+ *
+ * The Original Code and all software distributed under the License are
+ * distributed on an 'AS IS' basis, WITHOUT WARRANTY OF ANY KIND, EITHER
+ * EXPRESS OR IMPLIED, AND APPLE HEREBY DISCLAIMS ALL SUCH WARRANTIES,
+ * INCLUDING WITHOUT LIMITATION, ANY WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE, QUIET ENJOYMENT OR NON-INFRINGEMENT.
+ * Please see the License for the specific language governing rights and
+ * limitations under the License.
+ */
+
+package de.appplant.cordova.plugin.notification;
+
+import android.app.NotificationManager;
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.support.v4.app.NotificationCompat;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Fast path for frequent progress changes. Only the newest value per
+ * notification gets posted and all notifications together are posted at
+ * most every POST_INTERVAL ms, which stays below the rate limit of the
+ * system. Posted values get persisted afterwards on the mutation lane,
+ * which is also where the notification gets rebuilt if its builder is not
+ * in memory. That way a progress change can not bring back a notification
+ * which got canceled by a command called before.
+ */
+public final class ProgressQueue {
+
+    // Min time in ms between two posts, the system drops more than 5/s
+    private static final long POST_INTERVAL = 250;
+
+    // The singleton instance
+    private static ProgressQueue instance;
+
+    // The application context
+    private final Context context;
+
+    // Newest [value, max] per notification ID in the order of arrival
+    private final LinkedHashMap<Integer, int[]> pending =
+            new LinkedHashMap<Integer, int[]>();
+
+    // Newest [value, max] per notification ID which is not persisted yet
+    private final HashMap<Integer, int[]> unsaved =
+            new HashMap<Integer, int[]>();
+
+    // Background thread where the posts happen
+    private final Handler worker;
+
+    // Uptime of the last post
+    private long lastPost = 0;
+
+    // If a post is scheduled
+    private boolean scheduled = false;
+
+    /**
+     * Constructor
+     *
+     * @param context Application context.
+     */
+    private ProgressQueue(Context context) {
+        HandlerThread thread = new HandlerThread("LocalNotificationProgress");
+
+        thread.start();
+
+        this.context = context.getApplicationContext();
+        this.worker  = new Handler(thread.getLooper());
+    }
+
+    /**
+     * Static method to retrieve class instance.
+     *
+     * @param context Application context.
+     */
+    public static synchronized ProgressQueue getInstance(Context context) {
+        if (instance == null) {
+            instance = new ProgressQueue(context);
+        }
+
+        return instance;
+    }
+
+    /**
+     * Set the progress of the notification. Replaces a value of the same
+     * notification which has not been posted yet.
+     *
+     * @param id       The notification ID.
+     * @param value    The progress value.
+     * @param max      The max progress value.
+     * @param receiver Receiver to handle the trigger event if the
+     *                 notification has to be built first.
+     * @param lane     Executor for the changes of the notification.
+     */
+    public synchronized void post(int id, int value, int max,
+                                  final Class<?> receiver,
+                                  final Executor lane) {
+
+        pending.remove(id);
+        pending.put(id, new int[] { value, max });
+
+        if (scheduled)
+            return;
+
+        long delay = lastPost + POST_INTERVAL - SystemClock.uptimeMillis();
+
+        scheduled = true;
+
+        worker.postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                postNext(receiver, lane);
+            }
+        }, Math.max(delay, 0));
+    }
+
+    /**
+     * Drop the pending and the unsaved value of the notification, e.g.
+     * since it got cancelled or cleared.
+     *
+     * @param id The notification ID.
+     */
+    static void discard(int id) {
+        ProgressQueue queue;
+
+        synchronized (ProgressQueue.class) {
+            queue = instance;
+        }
+
+        if (queue != null) {
+            queue.remove(id);
+        }
+    }
+
+    /**
+     * Drop the pending and the unsaved value of the notification.
+     *
+     * @param id The notification ID.
+     */
+    private synchronized void remove(int id) {
+        pending.remove(id);
+        unsaved.remove(id);
+    }
+
+    /**
+     * Post the oldest pending value and schedule the next one.
+     *
+     * @param receiver Receiver to handle the trigger event if the
+     *                 notification has to be built first.
+     * @param lane     Executor for the changes of the notification.
+     */
+    private void postNext(final Class<?> receiver, final Executor lane) {
+        Map.Entry<Integer, int[]> entry;
+
+        synchronized (this) {
+            Iterator<Map.Entry<Integer, int[]>> it = pending.entrySet().iterator();
+
+            if (!it.hasNext()) {
+                scheduled = false;
+                return;
+            }
+
+            entry    = it.next();
+            lastPost = SystemClock.uptimeMillis();
+
+            it.remove();
+        }
+
+        int id    = entry.getKey();
+        int value = entry.getValue()[0];
+        int max   = entry.getValue()[1];
+
+        show(id, value, max);
+        save(id, value, max, receiver, lane);
+
+        synchronized (this) {
+            scheduled = !pending.isEmpty();
+
+            if (!scheduled)
+                return;
+
+            worker.postDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    postNext(receiver, lane);
+                }
+            }, POST_INTERVAL);
+        }
+    }
+
+    /**
+     * Update the progress bar of the posted notification if its builder
+     * is in memory. The builder gets dropped from the cache under its lock
+     * once the notification is cancelled or cleared, so it's checked again
+     * after locking.
+     *
+     * @param id    The notification ID.
+     * @param value The progress value.
+     * @param max   The max progress value.
+     */
+    private void show(int id, int value, int max) {
+        NotificationCompat.Builder builder = Notification.getCachedBuilder(id);
+
+        if (builder == null)
+            return;
+
+        NotificationManager mgr = (NotificationManager) context
+                .getSystemService(Context.NOTIFICATION_SERVICE);
+        boolean replaced;
+
+        synchronized (builder) {
+            replaced = Notification.getCachedBuilder(id) != builder;
+
+            if (!replaced) {
+                builder.setProgress(max, value, false)
+                       .setOnlyAlertOnce(true);
+
+                mgr.notify(id, builder.build());
+            }
+        }
+
+        if (replaced) {
+            show(id, value, max);
+        }
+    }
+
+    /**
+     * Hand the value over to the mutation lane to get persisted. Only one
+     * task per notification is queued at a time, which then takes the
+     * newest value.
+     *
+     * @param id       The notification ID.
+     * @param value    The progress value.
+     * @param max      The max progress value.
+     * @param receiver Receiver to handle the trigger event.
+     * @param lane     Executor for the changes of the notification.
+     */
+    private void save(final int id, int value, int max,
+                      final Class<?> receiver, Executor lane) {
+
+        synchronized (this) {
+            boolean queued = unsaved.containsKey(id);
+
+            unsaved.put(id, new int[] { value, max });
+
+            if (queued)
+                return;
+        }
+
+        lane.execute(new Runnable() {
+            @Override
+            public void run() {
+                persist(id, receiver);
+            }
+        });
+    }
+
+    /**
+     * Persist the newest progress of the notification. Rebuilds the
+     * notification from the merged options if its builder is not in
+     * memory, else the progress was shown in place already. Does nothing
+     * if the notification does not exist anymore.
+     *
+     * @param id       The notification ID.
+     * @param receiver Receiver to handle the trigger event.
+     */
+    private void persist(int id, Class<?> receiver) {
+        Notification toast;
+        int[] progress;
+
+        synchronized (this) {
+            progress = unsaved.remove(id);
+        }
+
+        if (progress == null)
+            return;
+
+        toast = Manager.getInstance(context).get(id);
+
+        if (toast == null)
+            return;
+
+        JSONObject dict    = toast.getOptions().getDict();
+        JSONObject current = dict.optJSONObject("progressBar");
+        JSONObject updates = new JSONObject();
+        JSONObject bar;
+
+        try {
+            bar = (current != null) ? new JSONObject(current.toString())
+                                    : new JSONObject();
+
+            bar.put("enabled", true);
+            bar.put("value", progress[0]);
+            bar.put("maxValue", progress[1]);
+            updates.put("progressBar", bar);
+        } catch (JSONException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        if (Notification.getCachedBuilder(id) != null) {
+            toast.merge(updates);
+        } else {
+            toast.update(updates, receiver);
+        }
+    }
+
+}
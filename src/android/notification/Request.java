@@ -23,10 +23,15 @@
 
 package de.appplant.cordova.plugin.notification;
 
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.provider.Settings;
+
+import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.Arrays;
-import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 
@@ -34,6 +39,8 @@ import de.appplant.cordova.plugin.notification.trigger.DateTrigger;
 import de.appplant.cordova.plugin.notification.trigger.IntervalTrigger;
 import de.appplant.cordova.plugin.notification.trigger.MatchTrigger;
 
+import static android.os.Build.VERSION.SDK_INT;
+import static android.os.Build.VERSION_CODES.N;
 import static de.appplant.cordova.plugin.notification.trigger.IntervalTrigger.Unit;
 
 /**
@@ -48,6 +55,18 @@ public final class Request {
     // Key name for bundled extras
     public static final String EXTRA_LAST = "NOTIFICATION_LAST";
 
+    // Key name for bundled extras
+    static final String EXTRA_DATE = "NOTIFICATION_DATE";
+
+    // Key for private preferences
+    static final String PREF_KEY_CURSOR = "NOTIFICATION_CURSOR";
+
+    // Key for private preferences
+    static final String PREF_KEY_ELAPSED = "NOTIFICATION_ELAPSED";
+
+    // Time in ms after which a missed trigger date is skipped
+    private static final long GRACE_PERIOD = 60000;
+
     // The options spec
     private final Options options;
 
@@ -63,17 +82,38 @@ public final class Request {
     // The current trigger date
     private Date triggerDate;
 
+    // The trigger date in ms of the last delivered occurrence or 0
+    private final long cursor;
+
+    // If the dates are not calculated from the base date of the spec
+    private final boolean rebased;
+
+    // Wall clock time and uptime since boot of the origin of elapsed dates
+    private long[] origin;
+
     /**
      * Create a request with a base date specified through the passed options.
      *
      * @param options The options spec.
      */
     public Request(Options options) {
+        this(options, false);
+    }
+
+    /**
+     * Create a request with a base date specified through the passed options.
+     *
+     * @param options The options spec.
+     * @param rebased If the dates shall count as calculated again.
+     */
+    private Request(Options options, boolean rebased) {
         this.options     = options;
         this.spec        = options.getTrigger();
         this.count       = Math.max(spec.optInt("count"), 1);
         this.trigger     = buildTrigger();
         this.triggerDate = trigger.getNextTriggerDate(getBaseDate());
+        this.cursor      = 0;
+        this.rebased     = rebased;
     }
 
     /**
@@ -88,6 +128,112 @@ public final class Request {
         this.count       = Math.max(spec.optInt("count"), 1);
         this.trigger     = buildTrigger();
         this.triggerDate = trigger.getNextTriggerDate(base);
+        this.cursor      = 0;
+        this.rebased     = true;
+    }
+
+    /**
+     * Create a request which continues after the last delivered occurrence.
+     * Missed occurrences are skipped at once.
+     *
+     * @param options    The options spec.
+     * @param occurrence The last delivered occurrence.
+     * @param date       The trigger date of that occurrence.
+     */
+    private Request(Options options, int occurrence, Date date) {
+        this.options = options;
+        this.spec    = options.getTrigger();
+        this.count   = Math.max(spec.optInt("count"), 1);
+        this.trigger = buildTrigger();
+        this.cursor  = date.getTime();
+        this.rebased = true;
+
+        Date min = new Date(getNow() - GRACE_PERIOD);
+
+        trigger.setOccurrence(occurrence);
+
+        this.triggerDate = trigger.getNextTriggerDate(date, min);
+
+        if (!options.isInfiniteTrigger() && getOccurrence() > count + 1) {
+            this.triggerDate = null;
+        }
+    }
+
+    /**
+     * Create a request which continues after the last delivered occurrence
+     * of the notification, or from the base date if none got delivered.
+     *
+     * @param options The options spec.
+     */
+    public static Request resume(Options options) {
+        return resume(options, false);
+    }
+
+    /**
+     * Create a request which calculates the trigger dates again, e.g. after
+     * the time zone has changed. Continues after the last delivered
+     * occurrence like resume, but the dates are never seen as unchanged.
+     *
+     * @param options The options spec.
+     */
+    public static Request rebase(Options options) {
+        return resume(options, true);
+    }
+
+    /**
+     * Create a request which continues after the last delivered occurrence
+     * of the notification, or from the base date if none got delivered.
+     *
+     * @param options The options spec.
+     * @param rebased If the dates shall count as calculated again.
+     */
+    private static Request resume(Options options, boolean rebased) {
+        String cursor = options.getContext()
+                .getSharedPreferences(PREF_KEY_CURSOR, Context.MODE_PRIVATE)
+                .getString(options.getIdentifier(), null);
+
+        if (cursor == null)
+            return restart(options, rebased);
+
+        try {
+            JSONObject json = new JSONObject(cursor);
+
+            return new Request(options, json.getInt("occurrence"),
+                    new Date(json.getLong("date")));
+        } catch (JSONException e) {
+            e.printStackTrace();
+            return restart(options, rebased);
+        }
+    }
+
+    /**
+     * Create a request for a notification which got not delivered yet.
+     * Relative triggers on the elapsed clock continue from the time they
+     * got scheduled instead of from now.
+     *
+     * @param options The options spec.
+     * @param rebased If the dates shall count as calculated again.
+     */
+    private static Request restart(Options options, boolean rebased) {
+        Request request = new Request(options, rebased);
+
+        if (!request.isElapsed())
+            return request;
+
+        String origin = options.getContext()
+                .getSharedPreferences(PREF_KEY_ELAPSED, Context.MODE_PRIVATE)
+                .getString(options.getIdentifier(), null);
+
+        if (origin == null)
+            return request;
+
+        try {
+            long wall = new JSONObject(origin).getLong("wall");
+            return new Request(options, new Date(wall));
+        } catch (JSONException e) {
+            e.printStackTrace();
+            return request;
+        }
     }
 
     /**
@@ -106,6 +252,140 @@ public final class Request {
         return options.getId().toString() + "-" + getOccurrence();
     }
 
+    /**
+     * If the trigger dates do not depend on the time the request was
+     * created, so that scheduling it again yields the same dates.
+     * Requests which continue from another date are never anchored.
+     */
+    boolean isAnchored() {
+        if (rebased)
+            return false;
+
+        return spec.has("at") || spec.has("firstAt") || spec.has("after")
+                || spec.opt("every") instanceof JSONObject;
+    }
+
+    /**
+     * If the trigger dates depend on the calendar fields of the wall clock,
+     * which are the date matching triggers and intervals of a day or more.
+     * Those dates have to be calculated again if the time zone changes.
+     */
+    public boolean isCalendarBased() {
+        if (trigger instanceof MatchTrigger)
+            return true;
+
+        return spec.has("every") && getUnit().compareTo(Unit.DAY) >= 0;
+    }
+
+    /**
+     * If the alarms shall go off by the uptime since boot instead of the
+     * wall clock, so that changing the clock does not move them. Only
+     * relative triggers and fixed intervals of less than a day support it.
+     */
+    boolean isElapsed() {
+        if (!"elapsed".equals(spec.optString("clock")) || isCalendarBased())
+            return false;
+
+        return !spec.has("at") && !spec.has("firstAt") && !spec.has("after");
+    }
+
+    /**
+     * The wall clock time and the uptime since boot of the moment from
+     * where the dates of an elapsed trigger got calculated. A date maps to
+     * the uptime by its distance to the origin, so changing the clock does
+     * not move the alarms. The uptime restarts with each boot, hence the
+     * origin gets rebased on the wall clock once after a reboot.
+     */
+    private long[] getElapsedOrigin() {
+        if (origin != null)
+            return origin;
+
+        SharedPreferences prefs = options.getContext()
+                .getSharedPreferences(PREF_KEY_ELAPSED, Context.MODE_PRIVATE);
+
+        String id   = options.getIdentifier();
+        String json = rebased ? prefs.getString(id, null) : null;
+        long wall   = System.currentTimeMillis();
+        long uptime = SystemClock.elapsedRealtime();
+        int boot    = getBootCount();
+
+        origin = new long[] { wall, uptime };
+
+        try {
+            if (json != null) {
+                JSONObject dict = new JSONObject(json);
+                boolean reboot;
+
+                origin[0] = dict.getLong("wall");
+                origin[1] = dict.getLong("elapsed");
+
+                if (boot >= 0) {
+                    reboot = dict.optInt("boot", -1) != boot;
+                } else {
+                    reboot = uptime < origin[1];
+                }
+
+                if (reboot) {
+                    origin[1] = uptime - (wall - origin[0]);
+                }
+            }
+
+            JSONObject dict = new JSONObject();
+
+            dict.put("wall", origin[0]);
+            dict.put("elapsed", origin[1]);
+            dict.put("boot", boot);
+
+            prefs.edit().putString(id, dict.toString()).apply();
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+
+        return origin;
+    }
+
+    /**
+     * The uptime since boot when the alarm for the date shall go off.
+     *
+     * @param date A trigger date of the request.
+     */
+    long getElapsedTime(Date date) {
+        long[] origin = getElapsedOrigin();
+
+        return origin[1] + date.getTime() - origin[0];
+    }
+
+    /**
+     * The current time in the frame of the trigger dates. For elapsed
+     * triggers that's the origin moved by the uptime since then.
+     */
+    private long getNow() {
+        if (!isElapsed())
+            return System.currentTimeMillis();
+
+        long[] origin = getElapsedOrigin();
+
+        return origin[0] + SystemClock.elapsedRealtime() - origin[1];
+    }
+
+    /**
+     * The number of boots of the device or -1 if unknown.
+     */
+    private int getBootCount() {
+        if (SDK_INT < N)
+            return -1;
+
+        return Settings.Global.getInt(options.getContext().getContentResolver(),
+                Settings.Global.BOOT_COUNT, -1);
+    }
+
+    /**
+     * If the request continues from the last delivered occurrence.
+     */
+    boolean isResumed() {
+        return cursor > 0;
+    }
+
     /**
      * The value of the internal occurrence counter.
      */
@@ -139,14 +419,15 @@ public final class Request {
      * @return null if there's no trigger date.
      */
     public Date getTriggerDate() {
-        Calendar now = Calendar.getInstance();
-
         if (triggerDate == null)
             return null;
 
         long time = triggerDate.getTime();
 
-        if ((now.getTimeInMillis() - time) > 60000)
+        if (isResumed() && time <= cursor)
+            return null;
+
+        if (!isResumed() && (getNow() - time) > GRACE_PERIOD)
             return null;
 
         if (time >= spec.optLong("before", time + 1))
@@ -43,83 +43,115 @@ public final class Action {
     // The id for the click action
     public static final String CLICK_ACTION_ID = "click";
 
-    // The application context
-    private final Context context;
+    // The ID of the action
+    private final String id;
 
-    // The action spec
-    private final JSONObject options;
+    // The title of the action
+    private final String title;
+
+    // The resource ID of the icon
+    private final int icon;
+
+    // If the action launches the app
+    private final boolean launch;
+
+    // The input config or null if the action is a button
+    private final RemoteInput input;
 
     /**
      * Structure to encapsulate a named action that can be shown as part of
-     * this notification.
+     * this notification. All values get resolved once so that building the
+     * action later on costs nothing but attaching the PendingIntent.
      *
      * @param context The application context.
      * @param options The action options.
      */
     Action (Context context, JSONObject options) {
-        this.context = context;
-        this.options = options;
+        this.title  = options.optString("title", "unknown");
+        this.id     = options.optString("id", title);
+        this.icon   = resolveIcon(context, options.optString("icon"));
+        this.launch = options.optBoolean("launch", false);
+        this.input  = options.optString("type").equals("input")
+                ? buildInput(options) : null;
     }
 
     /**
      * Gets the ID for the action.
      */
     public String getId() {
-        return options.optString("id", getTitle());
+        return id;
     }
 
     /**
      * Gets the Title for the action.
      */
     public String getTitle() {
-        return options.optString("title", "unknown");
+        return title;
     }
 
     /**
      * Gets the icon for the action.
      */
     public int getIcon() {
-        AssetUtil assets = AssetUtil.getInstance(context);
-        String resPath   = options.optString("icon");
-        int resId        = assets.getResId(resPath);
-
-        if (resId == 0) {
-            resId = android.R.drawable.screen_background_dark;
-        }
-
-        return resId;
+        return icon;
     }
 
     /**
      * Gets the value of the launch flag.
      */
     public boolean isLaunchingApp() {
-        return options.optBoolean("launch", false);
+        return launch;
     }
 
     /**
      * Gets the type for the action.
      */
     public boolean isWithInput() {
-        String type = options.optString("type");
-        return type.equals("input");
+        return input != null;
     }
 
     /**
      * Gets the input config in case of the action is of type input.
      */
     public RemoteInput getInput() {
-        return new RemoteInput.Builder(getId())
+        return input;
+    }
+
+    /**
+     * The resource ID of the icon.
+     *
+     * @param context The application context.
+     * @param resPath The path of the icon like res://ic_action.
+     */
+    private static int resolveIcon (Context context, String resPath) {
+        int resId = AssetUtil.getInstance(context).getResId(resPath);
+
+        if (resId == 0) {
+            resId = android.R.drawable.screen_background_dark;
+        }
+
+        return resId;
+    }
+
+    /**
+     * Build the input config for actions of type input.
+     *
+     * @param options The action options.
+     */
+    private RemoteInput buildInput (JSONObject options) {
+        return new RemoteInput.Builder(id)
                 .setLabel(options.optString("emptyText"))
                 .setAllowFreeFormInput(options.optBoolean("editable", true))
-                .setChoices(getChoices())
+                .setChoices(getChoices(options))
                 .build();
     }
 
     /**
      * List of possible choices for input actions.
+     *
+     * @param options The action options.
      */
-    private String[] getChoices() {
+    private static String[] getChoices (JSONObject options) {
         JSONArray opts = options.optJSONArray("choices");
 
         if (opts == null)
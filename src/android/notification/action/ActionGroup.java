@@ -22,23 +22,39 @@
 package de.appplant.cordova.plugin.notification.action;
 
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.util.Log;
 
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static android.os.Build.VERSION.SDK_INT;
 import static android.os.Build.VERSION_CODES.N;
 
 public final class ActionGroup {
 
+    // Key for private preferences
+    private static final String PREF_KEY = "NOTIFICATION_ACTIONS";
+
+    // Max number of parsed inline action lists to keep
+    private static final int MAX_INLINE = 64;
+
     // Saves all groups for later lookup.
-    private static final Map<String, ActionGroup> groups = new HashMap<String, ActionGroup>();
+    private static final Map<String, ActionGroup> groups =
+            new ConcurrentHashMap<String, ActionGroup>();
+
+    // Parsed inline action lists by their JSON
+    private static final Map<String, ActionGroup> inline =
+            new ConcurrentHashMap<String, ActionGroup>();
+
+    // If the persisted groups have been loaded
+    private static volatile boolean loaded = false;
 
     // The ID of the action group.
     private final String id;
@@ -46,44 +62,124 @@ public final class ActionGroup {
     // List of actions
     private final Action[] actions;
 
+    // The action specs the group was parsed from
+    private final JSONArray specs;
+
     /**
      * Lookup the action groups with the specified group id.
      *
-     * @param id The ID of the action group to find.
+     * @param context The application context.
+     * @param id      The ID of the action group to find.
      *
      * @return Null if no group was found.
      */
-    public static ActionGroup lookup(String id) {
+    public static ActionGroup lookup(Context context, String id) {
+        load(context);
         return groups.get(id);
     }
 
     /**
-     * Register the action group for later lookup.
+     * Register and persist the action group for later lookup.
      *
-     * @param group The action group to register.
+     * @param context The application context.
+     * @param group   The action group to register.
      */
-    public static void register (ActionGroup group) {
+    public static void register (Context context, ActionGroup group) {
+        load(context);
         groups.put(group.getId(), group);
+
+        getPrefs(context).edit()
+                .putString(group.getId(), group.specs.toString())
+                .apply();
     }
 
     /**
      * Unregister the action group.
      *
-     * @param id The id of the action group to remove.
+     * @param context The application context.
+     * @param id      The id of the action group to remove.
      */
-    public static void unregister (String id) {
+    public static void unregister (Context context, String id) {
+        load(context);
         groups.remove(id);
+
+        getPrefs(context).edit()
+                .remove(id)
+                .apply();
     }
 
     /**
      * Check if a action group with that id is registered.
      *
-     * @param id The id of the action group to check for.
+     * @param context The application context.
+     * @param id      The id of the action group to check for.
      */
-    public static boolean isRegistered (String id) {
+    public static boolean isRegistered (Context context, String id) {
+        load(context);
         return groups.containsKey(id);
     }
 
+    /**
+     * Gets the action group for the inline action specs. Equal specs are
+     * parsed only once.
+     *
+     * @param context The application context.
+     * @param list    The list of actions.
+     */
+    public static ActionGroup lookupInline (Context context, JSONArray list) {
+        String key        = list.toString();
+        ActionGroup group = inline.get(key);
+
+        if (group != null)
+            return group;
+
+        if (inline.size() >= MAX_INLINE) {
+            inline.clear();
+        }
+
+        group = parse(context, list);
+        inline.put(key, group);
+
+        return group;
+    }
+
+    /**
+     * Load the persisted groups into the registry once per process.
+     *
+     * @param context The application context.
+     */
+    private static void load (Context context) {
+        if (loaded)
+            return;
+
+        synchronized (ActionGroup.class) {
+            if (loaded)
+                return;
+
+            for (Map.Entry<String, ?> entry : getPrefs(context).getAll().entrySet()) {
+                String id = entry.getKey();
+
+                try {
+                    JSONArray list = new JSONArray((String) entry.getValue());
+                    groups.put(id, parse(context, id, list));
+                } catch (JSONException e) {
+                    e.printStackTrace();
+                }
+            }
+
+            loaded = true;
+        }
+    }
+
+    /**
+     * Shared private preferences for the action groups.
+     *
+     * @param context The application context.
+     */
+    private static SharedPreferences getPrefs (Context context) {
+        return context.getSharedPreferences(PREF_KEY, Context.MODE_PRIVATE);
+    }
+
     /**
      * Creates an action group by parsing the specified action specs.
      *
@@ -123,7 +219,7 @@ public final class ActionGroup {
             actions.add(new Action(context, opts));
         }
 
-        return new ActionGroup(id, actions.toArray(new Action[actions.size()]));
+        return new ActionGroup(id, actions.toArray(new Action[actions.size()]), list);
     }
 
     /**
@@ -131,10 +227,12 @@ public final class ActionGroup {
      *
      * @param id      The ID of the group.
      * @param actions The list of actions.
+     * @param specs   The action specs the group was parsed from.
      */
-    private ActionGroup(String id, Action[] actions) {
+    private ActionGroup(String id, Action[] actions, JSONArray specs) {
         this.id      = id;
         this.actions = actions;
+        this.specs   = specs;
     }
 
     /**
@@ -37,13 +37,29 @@ abstract public class AbstractClearReceiver extends BroadcastReceiver {
 
     /**
      * Called when the notification was cleared from the notification center.
+     * The work happens in background since it needs to read the storage.
      *
      * @param context Application context
      * @param intent  Received intent with content data
      */
     @Override
-    public void onReceive(Context context, Intent intent) {
-        Bundle bundle      = intent.getExtras();
+    public void onReceive(final Context context, final Intent intent) {
+        ReceiverExecutor.execute(goAsync(), new Runnable() {
+            @Override
+            public void run() {
+                handle(context, intent);
+            }
+        });
+    }
+
+    /**
+     * Find the notification and call the event function.
+     *
+     * @param context Application context
+     * @param intent  Received intent with content data
+     */
+    private void handle(Context context, Intent intent) {
+        Bundle bundle = intent.getExtras();
 
         if (bundle == null)
             return;
@@ -26,58 +26,171 @@ package de.appplant.cordova.plugin.notification.receiver;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import android.os.UserManager;
+import android.os.SystemClock;
 
 import org.json.JSONObject;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import de.appplant.cordova.plugin.notification.Builder;
+import de.appplant.cordova.plugin.notification.DirectBootStore;
 import de.appplant.cordova.plugin.notification.Manager;
 import de.appplant.cordova.plugin.notification.Notification;
 import de.appplant.cordova.plugin.notification.Options;
 import de.appplant.cordova.plugin.notification.Request;
 
-import static android.content.Intent.ACTION_BOOT_COMPLETED;
-import static android.os.Build.VERSION.SDK_INT;
-
 /**
  * This class is triggered upon reboot of the device. It needs to re-register
  * the alarms with the AlarmManager since these alarms are lost in case of
- * reboot.
+ * reboot. The notifications due within the next minutes are restored
+ * first, all in slices of BATCH_SIZE every SLICE_DELAY ms.
  */
 abstract public class AbstractRestoreReceiver extends BroadcastReceiver {
 
+    // Intent action to restore the next slice
+    private static final String ACTION_RESUME =
+            "de.appplant.cordova.plugin.notification.RESTORE_RESUME";
+
+    // Time in ms from now until when notifications are due to be urgent
+    private static final long URGENT_WINDOW = 5 * 60 * 1000;
+
+    // Number of notifications to restore per slice
+    private static final int BATCH_SIZE = 25;
+
+    // Time in ms between two slices
+    private static final long SLICE_DELAY = 5000;
+
     /**
-     * Called on device reboot.
+     * Called on device reboot or to restore the next slice. The work
+     * happens in background since it needs to read the storage and to
+     * schedule the notifications again. Before the first unlock only the
+     * alarms from the device protected storage get registered again.
      *
      * @param context Application context
      * @param intent  Received intent with content data
      */
     @Override
-    public void onReceive (Context context, Intent intent) {
-        String action = intent.getAction();
+    public void onReceive (final Context context, final Intent intent) {
+        final boolean resume = ACTION_RESUME.equals(intent.getAction());
+
+        if (DirectBootStore.isLocked(context)) {
+            ReceiverExecutor.execute(goAsync(), new Runnable() {
+                @Override
+                public void run() {
+                    DirectBootStore.rearm(context);
+                }
+            });
+            return;
+        }
+
+        ReceiverExecutor.execute(goAsync(), new Runnable() {
+            @Override
+            public void run() {
+                restore(context, resume);
+            }
+        });
+    }
+
+    /**
+     * Restore the next slice of notifications. After boot all notifications
+     * get prioritized first, so that the urgent ones form the first slices.
+     *
+     * @param context Application context
+     * @param resume  If to continue an earlier restore.
+     */
+    private void restore (Context context, boolean resume) {
+        long deadline                = ReceiverExecutor.getDeadline(1);
+        RestoreCheckpoint checkpoint = new RestoreCheckpoint(context);
+        Manager mgr                  = Manager.getInstance(context);
 
-        if (SDK_INT >= 24) {
-          UserManager um = (UserManager) context.getSystemService(UserManager.class);
-          if (um == null || um.isUserUnlocked() == false) return;
+        if (!resume) {
+            List<Integer> triggered = DirectBootStore.replay(context);
+            prioritize(context, checkpoint, triggered);
         }
 
-        Manager mgr               = Manager.getInstance(context);
-        List<JSONObject> toasts = mgr.getOptions();
+        List<Integer> ids = checkpoint.getPending();
+        int urgent        = checkpoint.getUrgent();
+        int limit         = urgent > 0 ? Math.min(urgent, BATCH_SIZE) : BATCH_SIZE;
+        int restored      = 0;
+
+        // Keep going even if the process dies in the middle of the slice
+        ReceiverExecutor.scheduleResume(context, getClass(), ACTION_RESUME, SLICE_DELAY);
+
+        for (int id : ids) {
+            if (restored == limit || SystemClock.uptimeMillis() > deadline)
+                return;
+
+            Options options = mgr.getOptions(id);
+
+            if (options != null) {
+                onRestore(Request.resume(options), new Notification(context, options));
+            }
+
+            checkpoint.advance();
+            restored++;
+        }
+
+        ReceiverExecutor.cancelResume(context, getClass(), ACTION_RESUME);
+        checkpoint.finish();
+    }
+
+    /**
+     * Sort the notifications by their trigger date and save them as the
+     * new checkpoint. Overdue ones and the ones due within URGENT_WINDOW
+     * come first and are counted as urgent. The ones which got triggered
+     * while the device was locked are skipped as they are up to date.
+     *
+     * @param context    Application context
+     * @param checkpoint The checkpoint to start over.
+     * @param skip       The IDs of the notifications to skip.
+     */
+    private void prioritize (Context context, RestoreCheckpoint checkpoint,
+                             List<Integer> skip) {
+        List<JSONObject> toasts        = Manager.getInstance(context).getOptions();
+        final Map<Integer, Long> dates = new HashMap<Integer, Long>();
+        List<Integer> ids              = new ArrayList<Integer>();
+        long urgentUntil               = System.currentTimeMillis() + URGENT_WINDOW;
+        int urgent                     = 0;
 
         for (JSONObject data : toasts) {
-            Options options    = new Options(context, data);
-            Request request    = new Request(options);
-            Builder builder    = new Builder(options);
-            Notification toast = buildNotification(builder);
+            Options options = new Options(context, data);
+
+            if (skip.contains(options.getId()))
+                continue;
+
+            Date date = Request.resume(options).getTriggerDate();
+            long time = (date != null) ? date.getTime() : 0;
 
-            onRestore(request, toast);
+            if (time < urgentUntil) {
+                urgent++;
+            }
+
+            dates.put(options.getId(), time);
+            ids.add(options.getId());
         }
+
+        Collections.sort(ids, new Comparator<Integer>() {
+            @Override
+            public int compare (Integer a, Integer b) {
+                long diff = dates.get(a) - dates.get(b);
+                return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+            }
+        });
+
+        checkpoint.begin(ids, urgent);
     }
 
     /**
-     * Called when a local notification need to be restored.
+     * Called when a local notification need to be restored. The passed
+     * notification is not built yet, call buildNotification only for the
+     * ones which have to be shown and RestoreCheckpoint.markShown once
+     * they are.
      *
      * @param request Set of notification options.
      * @param toast   Wrapper around the local notification.
@@ -0,0 +1,130 @@
+/*
+ * Apache 2.0 License
+ *
+ * Copyright (c) Sebastian Katzer 2017
+ *
+ * This file contains Original Code and/or Modifications of Original Code
+ * as defined in and that are subject to the Apache License
+ * Version 2.0 (the 'License'). You may not use this file except in
+ * compliance with the License. Please obtain a copy of the License at
+ * http://opensource.org/licenses/Apache-2.0/ and read it before using this
+ * file.
+ *
+ * The Original Code and all software distributed under the License are
+ * distributed on an 'AS IS' basis, WITHOUT WARRANTY OF ANY KIND, EITHER
+ * EXPRESS OR IMPLIED, AND APPLE HEREBY DISCLAIMS ALL SUCH WARRANTIES,
+ * INCLUDING WITHOUT LIMITATION, ANY WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE, QUIET ENJOYMENT OR NON-INFRINGEMENT.
+ * Please see the License for the specific language governing rights and
+ * limitations under the License.
+ */
+
+package de.appplant.cordova.plugin.notification.receiver;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.os.SystemClock;
+
+import java.util.List;
+
+import de.appplant.cordova.plugin.notification.DirectBootStore;
+import de.appplant.cordova.plugin.notification.Manager;
+import de.appplant.cordova.plugin.notification.Notification;
+import de.appplant.cordova.plugin.notification.Options;
+import de.appplant.cordova.plugin.notification.Request;
+
+/**
+ * This class is triggered when the clock or the time zone has changed.
+ * Only the notifications whose trigger dates depend on the calendar need
+ * to be scheduled again, relative triggers stay as they are. They are
+ * calculated again in slices of BATCH_SIZE every SLICE_DELAY ms, the ones
+ * due next first.
+ */
+abstract public class AbstractTimeChangeReceiver extends BroadcastReceiver {
+
+    // Intent action to calculate the next slice
+    private static final String ACTION_RESUME =
+            "de.appplant.cordova.plugin.notification.RECOMPUTE_RESUME";
+
+    // Key for private preferences of the checkpoint
+    private static final String PREF_KEY = "NOTIFICATION_RECOMPUTE";
+
+    // Number of notifications to calculate again per slice
+    private static final int BATCH_SIZE = 25;
+
+    // Time in ms between two slices
+    private static final long SLICE_DELAY = 1000;
+
+    /**
+     * Called when the clock or the time zone has changed or to calculate
+     * the next slice. The work happens in background since it needs to
+     * read the storage and to schedule the notifications again.
+     *
+     * @param context Application context
+     * @param intent  Received intent with content data
+     */
+    @Override
+    public void onReceive (final Context context, final Intent intent) {
+        final boolean resume = ACTION_RESUME.equals(intent.getAction());
+
+        if (DirectBootStore.isLocked(context))
+            return;
+
+        ReceiverExecutor.execute(goAsync(), new Runnable() {
+            @Override
+            public void run() {
+                recompute(context, resume);
+            }
+        });
+    }
+
+    /**
+     * Calculate the next slice of notifications again within the budget.
+     *
+     * @param context Application context
+     * @param resume  If to continue an earlier pass.
+     */
+    private void recompute (Context context, boolean resume) {
+        long deadline                = ReceiverExecutor.getDeadline(1);
+        RestoreCheckpoint checkpoint = new RestoreCheckpoint(context, PREF_KEY);
+        Manager mgr                  = Manager.getInstance(context);
+
+        if (!resume) {
+            checkpoint.begin(mgr.getCalendarBasedIds(), 0);
+        }
+
+        List<Integer> ids = checkpoint.getPending();
+        int done          = 0;
+
+        // Keep going even if the process dies in the middle of the slice
+        ReceiverExecutor.scheduleResume(context, getClass(), ACTION_RESUME, SLICE_DELAY);
+
+        for (int id : ids) {
+            if (done == BATCH_SIZE || SystemClock.uptimeMillis() > deadline)
+                return;
+
+            Options options = mgr.getOptions(id);
+
+            if (options != null) {
+                onTimeChange(Request.rebase(options), new Notification(context, options));
+            }
+
+            checkpoint.advance();
+            done++;
+        }
+
+        ReceiverExecutor.cancelResume(context, getClass(), ACTION_RESUME);
+        checkpoint.finish();
+    }
+
+    /**
+     * Called when the trigger dates of a local notification need to be
+     * calculated again.
+     *
+     * @param request Set of notification options.
+     * @param toast   Wrapper around the local notification.
+     */
+    abstract public void onTimeChange (Request request, Notification toast);
+
+}
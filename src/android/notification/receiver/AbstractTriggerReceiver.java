@@ -25,8 +25,12 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
+import android.util.Log;
+
+import java.util.concurrent.Callable;
 
 import de.appplant.cordova.plugin.notification.Builder;
+import de.appplant.cordova.plugin.notification.DirectBootStore;
 import de.appplant.cordova.plugin.notification.Manager;
 import de.appplant.cordova.plugin.notification.Notification;
 import de.appplant.cordova.plugin.notification.Options;
@@ -37,31 +41,72 @@ import de.appplant.cordova.plugin.notification.Options;
  */
 abstract public class AbstractTriggerReceiver extends BroadcastReceiver {
 
+    // Share of the time budget to wait for the notification with all assets
+    private static final float BUILD_SHARE = 0.6f;
+
     /**
-     * Called when an alarm was triggered.
+     * Called when an alarm was triggered. The work happens in background
+     * since it needs to read the storage and load the assets. Before the
+     * first unlock after boot the content is not available yet, so the
+     * trigger is kept until then.
      *
      * @param context Application context
      * @param intent  Received intent with content data
      */
     @Override
-    public void onReceive(Context context, Intent intent) {
-        Bundle bundle   = intent.getExtras();
+    public void onReceive(final Context context, final Intent intent) {
+        if (DirectBootStore.isLocked(context)) {
+            DirectBootStore.defer(context, intent);
+            return;
+        }
+
+        ReceiverExecutor.execute(goAsync(), new Runnable() {
+            @Override
+            public void run() {
+                handle(context, intent);
+            }
+        });
+    }
+
+    /**
+     * Build the notification and call the event function. If loading the
+     * assets takes too long, the notification gets posted without them.
+     *
+     * @param context Application context
+     * @param intent  Received intent with content data
+     */
+    private void handle(Context context, Intent intent) {
+        final Bundle bundle = intent.getExtras();
 
         if (bundle == null)
             return;
 
-        int toastId     = bundle.getInt(Notification.EXTRA_ID, 0);
-        Options options = Manager.getInstance(context).getOptions(toastId);
+        int toastId           = bundle.getInt(Notification.EXTRA_ID, 0);
+        final Options options = Manager.getInstance(context).getOptions(toastId);
 
         if (options == null)
             return;
 
-        Builder builder    = new Builder(options);
-        Notification toast = buildNotification(builder, bundle);
+        long deadline      = ReceiverExecutor.getDeadline(BUILD_SHARE);
+        Notification toast = ReceiverExecutor.await(new Callable<Notification>() {
+            @Override
+            public Notification call() {
+                return buildNotification(new Builder(options), bundle);
+            }
+        }, deadline);
+
+        if (toast == null) {
+            Log.w("LocalNotification", "Posting notification " + toastId
+                    + " without assets as they took too long to load");
+
+            Builder builder = new Builder(options).setWithoutAssets(true);
+            toast           = buildNotification(builder, bundle);
+        }
 
         if (toast == null)
             return;
 
+        toast.setCursor(bundle);
         onTrigger(toast, bundle);
     }
 
@@ -0,0 +1,193 @@
+/*
+ * Apache 2.0 License
+ *
+ * Copyright (c) Sebastian Katzer 2017
+ *
+ * This file contains Original Code and/or Modifications of Original Code
+ * as defined in and that are subject to the Apache License
+ * Version 2.0 (the 'License'). You may not use this file except in
+ * compliance with the License. Please obtain a copy of the License at
+ * http://opensource.org/licenses/Apache-2.0/ and read it before using this
+ * file.
+ *
+ * The Original Code and all software distributed under the License are
+ * distributed on an 'AS IS' basis, WITHOUT WARRANTY OF ANY KIND, EITHER
+ * EXPRESS OR IMPLIED, AND APPLE HEREBY DISCLAIMS ALL SUCH WARRANTIES,
+ * INCLUDING WITHOUT LIMITATION, ANY WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE, QUIET ENJOYMENT OR NON-INFRINGEMENT.
+ * Please see the License for the specific language governing rights and
+ * limitations under the License.
+ */
+
+package de.appplant.cordova.plugin.notification.receiver;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.BroadcastReceiver.PendingResult;
+import android.content.Context;
+import android.content.Intent;
+import android.os.SystemClock;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static android.app.AlarmManager.ELAPSED_REALTIME_WAKEUP;
+import static android.app.PendingIntent.FLAG_UPDATE_CURRENT;
+import static android.content.Context.ALARM_SERVICE;
+
+/**
+ * Runs the work of the receivers off the main thread. The receivers hand
+ * over their pending result, which gets finished once the work is done.
+ * The system kills a receiver after 10 s, so the work has to complete
+ * within TIME_BUDGET.
+ */
+final class ReceiverExecutor {
+
+    // Time in ms the work of a receiver may take
+    static final long TIME_BUDGET = 8000;
+
+    // Time in seconds after which idle threads terminate
+    private static final long KEEP_ALIVE = 30;
+
+    // Threads for the work of the receivers
+    private static final ThreadPoolExecutor receivers = newPool(2);
+
+    // Threads for slow tasks with a deadline like building a notification
+    private static final ThreadPoolExecutor tasks = newPool(2);
+
+    /**
+     * Run the work in background and finish the pending result afterwards.
+     * Without a pending result, e.g. if the receiver was called directly
+     * and not by the system, the work runs on the calling thread.
+     *
+     * @param result The pending result from goAsync or null.
+     * @param work   The work to do.
+     */
+    static void execute (final PendingResult result, final Runnable work) {
+        if (result == null) {
+            work.run();
+            return;
+        }
+
+        receivers.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    work.run();
+                } finally {
+                    result.finish();
+                }
+            }
+        });
+    }
+
+    /**
+     * Run the task and wait for its result until the deadline.
+     *
+     * @param task     The task to run.
+     * @param deadline Uptime in ms until when to wait.
+     *
+     * @return null if the task did not complete in time or failed.
+     */
+    static <T> T await (Callable<T> task, long deadline) {
+        Future<T> future = tasks.submit(task);
+        long timeout     = deadline - SystemClock.uptimeMillis();
+
+        try {
+            return future.get(Math.max(timeout, 0), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    /**
+     * Uptime in ms until when the work started now has to be done.
+     *
+     * @param share The part of the time budget to grant.
+     */
+    static long getDeadline (float share) {
+        return SystemClock.uptimeMillis() + (long) (TIME_BUDGET * share);
+    }
+
+    /**
+     * Broadcast the action to the receiver after the delay to continue
+     * work which did not fit into one call. Replaces an earlier one.
+     *
+     * @param context  Application context.
+     * @param receiver The receiver to call again.
+     * @param action   The intent action.
+     * @param delay    The delay in ms.
+     */
+    static void scheduleResume (Context context, Class<?> receiver,
+                                String action, long delay) {
+
+        AlarmManager mgr = (AlarmManager) context.getSystemService(ALARM_SERVICE);
+
+        if (mgr == null)
+            return;
+
+        mgr.set(ELAPSED_REALTIME_WAKEUP, SystemClock.elapsedRealtime() + delay,
+                getResumeIntent(context, receiver, action));
+    }
+
+    /**
+     * Cancel the broadcast to continue the work.
+     *
+     * @param context  Application context.
+     * @param receiver The receiver to call again.
+     * @param action   The intent action.
+     */
+    static void cancelResume (Context context, Class<?> receiver,
+                              String action) {
+
+        AlarmManager mgr = (AlarmManager) context.getSystemService(ALARM_SERVICE);
+
+        if (mgr == null)
+            return;
+
+        mgr.cancel(getResumeIntent(context, receiver, action));
+    }
+
+    /**
+     * The pending intent to continue the work.
+     *
+     * @param context  Application context.
+     * @param receiver The receiver to call again.
+     * @param action   The intent action.
+     */
+    private static PendingIntent getResumeIntent (Context context,
+                                                  Class<?> receiver,
+                                                  String action) {
+
+        Intent intent = new Intent(context, receiver).setAction(action);
+
+        return PendingIntent.getBroadcast(context, 0, intent, FLAG_UPDATE_CURRENT);
+    }
+
+    /**
+     * Create a pool with the given number of threads.
+     *
+     * @param threads Max number of threads.
+     */
+    private static ThreadPoolExecutor newPool (int threads) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads,
+                KEEP_ALIVE, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+
+        pool.allowCoreThreadTimeOut(true);
+
+        return pool;
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Apache 2.0 License
+ *
+ * Copyright (c) Sebastian Katzer 2017
+ *
+ * This file contains Original Code and/or Modifications of Original Code
+ * as defined in and that are subject to the Apache License
+ * Version 2.0 (the 'License'). You may not use this file except in
+ * compliance with the License. Please obtain a copy of the License at
+ * http://opensource.org/licenses/Apache-2.0/ and read it before using this
+ * file.
+ *
+ * The Original Code and all software distributed under the License are
+ * distributed on an 'AS IS' basis, WITHOUT WARRANTY OF ANY KIND, EITHER
+ * EXPRESS OR IMPLIED, AND APPLE HEREBY DISCLAIMS ALL SUCH WARRANTIES,
+ * INCLUDING WITHOUT LIMITATION, ANY WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE, QUIET ENJOYMENT OR NON-INFRINGEMENT.
+ * Please see the License for the specific language governing rights and
+ * limitations under the License.
+ */
+
+package de.appplant.cordova.plugin.notification.receiver;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress of the restore after boot or of another pass over many
+ * notifications. Keeps the IDs of the notifications to restore in the
+ * order of their priority and the offset of the next one, so that an
+ * interrupted restore resumes where it stopped. Also keeps the uptimes of
+ * the first and of the last restored notification.
+ */
+public final class RestoreCheckpoint {
+
+    // Key for private preferences
+    private static final String PREF_KEY = "NOTIFICATION_RESTORE";
+
+    // The application context
+    private final Context context;
+
+    // Key for private preferences of this checkpoint
+    private final String key;
+
+    /**
+     * Constructor
+     *
+     * @param context Application context.
+     */
+    RestoreCheckpoint (Context context) {
+        this(context, PREF_KEY);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param context Application context.
+     * @param key     Key for private preferences of the checkpoint.
+     */
+    RestoreCheckpoint (Context context, String key) {
+        this.context = context;
+        this.key     = key;
+    }
+
+    /**
+     * Start a new restore of the notifications.
+     *
+     * @param ids    The IDs in the order to restore them.
+     * @param urgent The number of IDs to restore right away.
+     */
+    void begin (List<Integer> ids, int urgent) {
+        getPrefs().edit()
+                .clear()
+                .putString("ids", new JSONArray(ids).toString())
+                .putInt("offset", 0)
+                .putInt("urgent", urgent)
+                .putLong("started", SystemClock.elapsedRealtime())
+                .commit();
+    }
+
+    /**
+     * The IDs of the notifications which are not restored yet.
+     */
+    List<Integer> getPending() {
+        SharedPreferences prefs = getPrefs();
+        List<Integer> ids       = new ArrayList<Integer>();
+        int offset              = prefs.getInt("offset", 0);
+
+        try {
+            JSONArray list = new JSONArray(prefs.getString("ids", "[]"));
+
+            for (int i = offset; i < list.length(); i++) {
+                ids.add(list.optInt(i));
+            }
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+
+        return ids;
+    }
+
+    /**
+     * The number of IDs to restore right away.
+     */
+    int getUrgent() {
+        return getPrefs().getInt("urgent", 0);
+    }
+
+    /**
+     * Move on to the next notification after one got restored.
+     */
+    void advance() {
+        SharedPreferences prefs = getPrefs();
+
+        prefs.edit()
+             .putInt("offset", prefs.getInt("offset", 0) + 1)
+             .putInt("urgent", Math.max(prefs.getInt("urgent", 0) - 1, 0))
+             .apply();
+    }
+
+    /**
+     * Keep the uptime when the restore showed its first notification.
+     * To be called by the restore receiver each time it shows one.
+     *
+     * @param context Application context.
+     */
+    public static void markShown (Context context) {
+        SharedPreferences prefs = new RestoreCheckpoint(context).getPrefs();
+
+        if (prefs.contains("first"))
+            return;
+
+        prefs.edit()
+             .putLong("first", SystemClock.elapsedRealtime())
+             .apply();
+    }
+
+    /**
+     * Mark the restore as done.
+     */
+    void finish() {
+        getPrefs().edit()
+                .putLong("done", SystemClock.elapsedRealtime())
+                .apply();
+    }
+
+    /**
+     * The progress of the last restore. All times are the uptime in ms
+     * since boot, where first is the time when the first notification
+     * got shown.
+     *
+     * @param context Application context.
+     */
+    public static JSONObject getStats (Context context) {
+        RestoreCheckpoint checkpoint = new RestoreCheckpoint(context);
+        SharedPreferences prefs      = checkpoint.getPrefs();
+        JSONObject stats             = new JSONObject();
+
+        try {
+            stats.put("total", new JSONArray(prefs.getString("ids", "[]")).length());
+            stats.put("restored", prefs.getInt("offset", 0));
+            stats.put("started", prefs.getLong("started", -1));
+            stats.put("first", prefs.getLong("first", -1));
+            stats.put("done", prefs.getLong("done", -1));
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+
+        return stats;
+    }
+
+    /**
+     * Shared private preferences for the application.
+     */
+    private SharedPreferences getPrefs() {
+        return context.getSharedPreferences(key, Context.MODE_PRIVATE);
+    }
+
+}
@@ -41,6 +41,16 @@ abstract public class DateTrigger {
      */
     abstract public Date getNextTriggerDate(Date base);
 
+    /**
+     * Gets the first trigger date after base which is not before min.
+     *
+     * @param base The date from where to calculate the trigger date.
+     * @param min  The date before which trigger dates are skipped.
+     *
+     * @return null if there's none next trigger date.
+     */
+    abstract public Date getNextTriggerDate(Date base, Date min);
+
     /**
      * The value of the occurrence.
      */
@@ -48,6 +58,15 @@ abstract public class DateTrigger {
         return occurrence;
     }
 
+    /**
+     * Set the occurrence to continue from.
+     *
+     * @param occurrence The value of the occurrence.
+     */
+    public void setOccurrence(int occurrence) {
+        this.occurrence = occurrence;
+    }
+
     /**
      * Increase the occurrence by 1.
      */
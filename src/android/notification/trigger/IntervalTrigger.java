@@ -30,6 +30,11 @@ import java.util.Date;
  */
 public class IntervalTrigger extends DateTrigger {
 
+    // Upper bound of the length in ms of one tick per unit
+    private static final long[] TICK_LENGTHS = {
+            1000L, 60000L, 3600000L, 90000000L, 630000000L,
+            2678400000L, 7948800000L, 31622400000L };
+
     // The number of ticks per interval
     private final int ticks;
 
@@ -64,12 +69,56 @@ public class IntervalTrigger extends DateTrigger {
         return cal.getTime();
     }
 
+    /**
+     * Gets the first trigger date after base which is not before min. The
+     * missed intervals are skipped at once and, like missed matches, do
+     * not count as occurrences.
+     *
+     * @param base The date from where to calculate the trigger date.
+     * @param min  The date before which trigger dates are skipped.
+     *
+     * @return null if there's none next trigger date.
+     */
+    @Override
+    public Date getNextTriggerDate(Date base, Date min) {
+        Date date = getNextTriggerDate(base);
+
+        if (ticks <= 0 || !date.before(min))
+            return date;
+
+        Calendar cal = getCal(date);
+        long length  = TICK_LENGTHS[unit.ordinal()] * ticks;
+        int skip     = (int) ((min.getTime() - date.getTime()) / length);
+
+        if (skip > 0) {
+            addInterval(cal, skip);
+        }
+
+        while (cal.getTime().before(min)) {
+            addInterval(cal);
+        }
+
+        return cal.getTime();
+    }
+
     /**
      * Adds the amount of ticks to the calendar.
      *
      * @param cal The calendar to manipulate.
      */
     void addInterval(Calendar cal) {
+        addInterval(cal, 1);
+    }
+
+    /**
+     * Adds the amount of ticks of several intervals to the calendar.
+     *
+     * @param cal   The calendar to manipulate.
+     * @param times The number of intervals.
+     */
+    void addInterval(Calendar cal, int times) {
+        int ticks = this.ticks * times;
+
         switch (unit) {
             case SECOND:
                 cal.add(Calendar.SECOND, ticks);
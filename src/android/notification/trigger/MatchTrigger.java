@@ -265,6 +265,31 @@ public class MatchTrigger extends IntervalTrigger {
         return getTriggerDate(date);
     }
 
+    /**
+     * Gets the first matching date after base which is not before min.
+     * Missed matches are skipped at once and, like missed intervals, do
+     * not count as occurrences.
+     *
+     * @param base The date from where to calculate the trigger date.
+     * @param min  The date before which trigger dates are skipped.
+     *
+     * @return null if there's none next trigger date.
+     */
+    @Override
+    public Date getNextTriggerDate (Date base, Date min) {
+        Calendar cal = getCal(base);
+
+        if (unit == null)
+            return null;
+
+        addInterval(cal);
+        incOccurrence();
+
+        Date date = cal.getTime();
+
+        return getTriggerDate(date.before(min) ? min : date);
+    }
+
     /**
      * Sets the field value of now to date and adds by count.
      */
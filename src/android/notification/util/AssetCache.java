@@ -0,0 +1,358 @@
+/*
+ * Apache 2.0 License
+ *
+ * Copyright (c) Sebastian Katzer 2017
+ *
+ * This file contains Original Code and/or Modifications of Original Code
+ * as defined in and that are subject to the Apache License
+ * Version 2.0 (the 'License'). You may not use this file except in
+ * compliance with the License. Please obtain a copy of the License at
+ * http://opensource.org/licenses/Apache-2.0/ and read it before using this
+ * file.
+ *
+ * The Original Code and all software distributed under the License are
+ * distributed on an 'AS IS' basis, WITHOUT WARRANTY OF ANY KIND, EITHER
+ * EXPRESS OR IMPLIED, AND APPLE HEREBY DISCLAIMS ALL SUCH WARRANTIES,
+ * INCLUDING WITHOUT LIMITATION, ANY WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE, QUIET ENJOYMENT OR NON-INFRINGEMENT.
+ * Please see the License for the specific language governing rights and
+ * limitations under the License.
+ */
+
+package de.appplant.cordova.plugin.notification.util;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.MessageQueue;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.appplant.cordova.plugin.notification.Manager;
+
+/**
+ * Janitor for the cache folder where AssetUtil stores copied and downloaded
+ * files. Removes files no longer referenced by any stored notification and
+ * evicts the least recently used ones once the folder exceeds its quota.
+ * The work is done in small slices on a background thread after the main
+ * thread went idle.
+ */
+public final class AssetCache {
+
+    // Default quota of the cache folder in bytes
+    public static final int DEFAULT_QUOTA = 10 * 1024 * 1024;
+
+    // Number of files to inspect per slice
+    private static final int SLICE_SIZE = 32;
+
+    // Pause between two slices in ms
+    private static final long SLICE_DELAY = 50;
+
+    // Files younger than that might belong to a notification being built
+    private static final long GRACE_PERIOD = 60000;
+
+    // The singleton instance
+    private static AssetCache instance;
+
+    // The application context
+    private final Context context;
+
+    // Number of lookups served from the cache
+    private final AtomicLong hits = new AtomicLong();
+
+    // Number of lookups which had to copy or download the file
+    private final AtomicLong misses = new AtomicLong();
+
+    // Number of files removed to stay within the quota
+    private final AtomicLong evictions = new AtomicLong();
+
+    // Number of files removed as no notification referenced them
+    private final AtomicLong orphans = new AtomicLong();
+
+    // Max size of the cache folder in bytes
+    private volatile long quota = DEFAULT_QUOTA;
+
+    // Background thread where the janitor runs
+    private Handler worker;
+
+    // If a pass is pending or in progress
+    private boolean busy = false;
+
+    /**
+     * Constructor
+     *
+     * @param context Application context.
+     */
+    private AssetCache(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * Static method to retrieve class instance.
+     *
+     * @param context Application context.
+     */
+    public static synchronized AssetCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new AssetCache(context);
+        }
+
+        return instance;
+    }
+
+    /**
+     * Set the max size of the cache folder.
+     *
+     * @param bytes The quota in bytes.
+     */
+    public void setQuota(long bytes) {
+        quota = Math.max(bytes, 0);
+    }
+
+    /**
+     * Count a lookup served from the cache.
+     */
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    /**
+     * Count a lookup which had to fill the cache.
+     */
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    /**
+     * Run the janitor the next time the main thread is idle. Does nothing
+     * if a pass is already pending.
+     */
+    public synchronized void trimWhenIdle() {
+        if (busy)
+            return;
+
+        busy = true;
+
+        new Handler(Looper.getMainLooper()).post(new Runnable() {
+            @Override
+            public void run() {
+                Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+                    @Override
+                    public boolean queueIdle() {
+                        getWorker().post(new Pass());
+                        return false;
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Size of the cache folder and the hit counters.
+     */
+    public JSONObject getStats() {
+        JSONObject stats = new JSONObject();
+        File[] files     = listFiles();
+        long size        = 0;
+
+        for (File file : files) {
+            size += file.length();
+        }
+
+        try {
+            stats.put("size", size);
+            stats.put("files", files.length);
+            stats.put("quota", quota);
+            stats.put("hits", hits.get());
+            stats.put("misses", misses.get());
+            stats.put("evictions", evictions.get());
+            stats.put("orphans", orphans.get());
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+
+        return stats;
+    }
+
+    /**
+     * Names of the cache files referenced by the stored notifications.
+     */
+    private Set<String> getReferencedNames() {
+        AssetUtil assets  = AssetUtil.getInstance(context);
+        Set<String> names = new HashSet<String>();
+
+        for (JSONObject dict : Manager.getInstance(context).getOptions()) {
+            JSONArray pics = dict.optJSONArray("attachments");
+
+            names.add(assets.getCacheName(dict.optString("icon", null)));
+            names.add(assets.getCacheName(dict.optString("sound", null)));
+
+            if (pics == null)
+                continue;
+
+            for (int i = 0; i < pics.length(); i++) {
+                names.add(assets.getCacheName(pics.optString(i, null)));
+            }
+        }
+
+        names.remove(null);
+
+        return names;
+    }
+
+    /**
+     * All files within the cache folder.
+     */
+    private File[] listFiles() {
+        File dir     = AssetUtil.getInstance(context).getStorageDir();
+        File[] files = (dir != null) ? dir.listFiles() : null;
+
+        return (files != null) ? files : new File[0];
+    }
+
+    /**
+     * Remove the least recently used files until the quota is reached.
+     *
+     * @param files The remaining files of the cache folder.
+     */
+    private void evict(List<File> files) {
+        long size = 0;
+
+        for (File file : files) {
+            size += file.length();
+        }
+
+        if (size <= quota)
+            return;
+
+        Collections.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.valueOf(a.lastModified())
+                        .compareTo(b.lastModified());
+            }
+        });
+
+        for (File file : files) {
+            if (size <= quota)
+                break;
+
+            long length = file.length();
+
+            if (file.delete()) {
+                size -= length;
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Background thread where the janitor runs.
+     */
+    private synchronized Handler getWorker() {
+        if (worker == null) {
+            HandlerThread thread = new HandlerThread("LocalNotificationCache");
+            thread.start();
+            worker = new Handler(thread.getLooper());
+        }
+
+        return worker;
+    }
+
+    /**
+     * Mark the current pass as done.
+     */
+    private synchronized void finish() {
+        busy = false;
+    }
+
+    /**
+     * A single run of the janitor which inspects a slice of the files per
+     * step and reschedules itself until all files are inspected.
+     */
+    private final class Pass implements Runnable {
+
+        // Files found when the pass started
+        private File[] files;
+
+        // Names referenced by stored notifications
+        private Set<String> referenced;
+
+        // Files which survived the orphan check
+        private final List<File> kept = new ArrayList<File>();
+
+        // Position of the next file to inspect
+        private int index = 0;
+
+        /**
+         * Inspect the next slice of files. The pass ends on failure too,
+         * so that the janitor can run again.
+         */
+        @Override
+        public void run() {
+            boolean pending = false;
+
+            try {
+                pending = inspect();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                if (!pending) {
+                    finish();
+                }
+            }
+        }
+
+        /**
+         * Inspect the next slice of files.
+         *
+         * @return true if the pass continues with another slice.
+         */
+        private boolean inspect() {
+            if (files == null) {
+                files      = listFiles();
+                referenced = getReferencedNames();
+            }
+
+            long now = System.currentTimeMillis();
+            int end  = Math.min(index + SLICE_SIZE, files.length);
+
+            for (; index < end; index++) {
+                File file = files[index];
+
+                if (!file.isFile())
+                    continue;
+
+                boolean inUse = referenced.contains(file.getName())
+                        || now - file.lastModified() < GRACE_PERIOD;
+
+                if (!inUse && file.delete()) {
+                    orphans.incrementAndGet();
+                } else {
+                    kept.add(file);
+                }
+            }
+
+            if (index < files.length) {
+                getWorker().postDelayed(this, SLICE_DELAY);
+                return true;
+            }
+
+            evict(kept);
+            return false;
+        }
+    }
+
+}
@@ -19,8 +19,186 @@
 
 package de.appplant.cordova.plugin.notification.util;
 
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.provider.OpenableColumns;
 import android.support.v4.content.FileProvider;
+import android.text.TextUtils;
+import android.webkit.MimeTypeMap;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * File provider for the cached files of the plugin. In addition it serves
+ * the assets of the www folder straight out of the APK, so that URIs like
+ * content://.../www/sounds/ding.mp3 do not require a copy of the asset.
+ */
 public class AssetProvider extends FileProvider {
-    // Nothing to do here
-}
\ No newline at end of file
+
+    // First path segment of URIs pointing to packaged assets
+    static final String ASSET_FOLDER = "www";
+
+    // Default mime type if the extension is unknown
+    private static final String DEFAULT_MIME_TYPE = "application/octet-stream";
+
+    // Columns of a packaged asset if the query does not specify them
+    private static final String[] COLUMNS = {
+            OpenableColumns.DISPLAY_NAME, OpenableColumns.SIZE };
+
+    /**
+     * The authority of the provider as declared within the manifest.
+     *
+     * @param context Application context.
+     */
+    static String getAuthority (Context context) {
+        return context.getPackageName() + ".localnotifications.provider";
+    }
+
+    /**
+     * Content URI for a packaged asset.
+     *
+     * @param context Application context.
+     * @param path    Asset path like www/sounds/ding.mp3
+     *
+     * @return content://...
+     */
+    static Uri getUriForAsset (Context context, String path) {
+        Uri.Builder builder = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority(getAuthority(context));
+
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                builder.appendPath(segment);
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Open the packaged asset or fall back to the cached file.
+     *
+     * @param uri  The URI to open.
+     * @param mode The access mode, only "r" is supported for assets.
+     */
+    @Override
+    public AssetFileDescriptor openAssetFile (Uri uri, String mode)
+            throws FileNotFoundException {
+
+        String path = getAssetPath(uri);
+
+        if (path == null)
+            return super.openAssetFile(uri, mode);
+
+        if (!"r".equals(mode))
+            throw new SecurityException("Assets are read-only: " + uri);
+
+        try {
+            return getContext().getAssets().openFd(path);
+        } catch (IOException e) {
+            throw new FileNotFoundException("Asset not found: " + path);
+        }
+    }
+
+    /**
+     * The mime type of the packaged asset or of the cached file.
+     *
+     * @param uri The URI to look up.
+     */
+    @Override
+    public String getType (Uri uri) {
+        String path = getAssetPath(uri);
+
+        if (path == null)
+            return super.getType(uri);
+
+        String ext  = MimeTypeMap.getFileExtensionFromUrl(path);
+        String type = MimeTypeMap.getSingleton().getMimeTypeFromExtension(ext);
+
+        return type != null ? type : DEFAULT_MIME_TYPE;
+    }
+
+    /**
+     * Display name and size of the packaged asset or of the cached file.
+     * Unknown columns of the projection are ignored like FileProvider does.
+     */
+    @Override
+    public Cursor query (Uri uri, String[] projection, String selection,
+                         String[] selectionArgs, String sortOrder) {
+
+        String path = getAssetPath(uri);
+
+        if (path == null)
+            return super.query(uri, projection, selection, selectionArgs, sortOrder);
+
+        if (projection == null) {
+            projection = COLUMNS;
+        }
+
+        String[] cols   = new String[projection.length];
+        Object[] values = new Object[projection.length];
+        int i           = 0;
+
+        for (String col : projection) {
+            if (OpenableColumns.DISPLAY_NAME.equals(col)) {
+                cols[i]     = OpenableColumns.DISPLAY_NAME;
+                values[i++] = uri.getLastPathSegment();
+            } else
+            if (OpenableColumns.SIZE.equals(col)) {
+                cols[i]     = OpenableColumns.SIZE;
+                values[i++] = getAssetLength(path);
+            }
+        }
+
+        MatrixCursor cursor = new MatrixCursor(Arrays.copyOf(cols, i), 1);
+        cursor.addRow(Arrays.copyOf(values, i));
+
+        return cursor;
+    }
+
+    /**
+     * The size in bytes of the packaged asset.
+     *
+     * @param path Asset path like www/sounds/ding.mp3
+     *
+     * @return UNKNOWN_LENGTH if the asset could not be opened.
+     */
+    private long getAssetLength (String path) {
+        try {
+            AssetFileDescriptor fd = getContext().getAssets().openFd(path);
+            long size              = fd.getLength();
+
+            fd.close();
+
+            return size;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return AssetFileDescriptor.UNKNOWN_LENGTH;
+        }
+    }
+
+    /**
+     * The asset path if the URI points to a packaged asset.
+     *
+     * @param uri The URI to check.
+     *
+     * @return null if the URI points to a cached file.
+     */
+    private String getAssetPath (Uri uri) {
+        List<String> segments = uri.getPathSegments();
+
+        if (segments.size() < 2 || !ASSET_FOLDER.equals(segments.get(0)))
+            return null;
+
+        return TextUtils.join("/", segments);
+    }
+
+}
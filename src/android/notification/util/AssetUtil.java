@@ -23,6 +23,7 @@ package de.appplant.cordova.plugin.notification.util;
 
 import android.content.ContentResolver;
 import android.content.Context;
+import android.content.pm.PackageManager;
 import android.content.res.AssetManager;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
@@ -31,6 +32,7 @@ import android.net.Uri;
 import android.os.StrictMode;
 import android.util.Log;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -39,7 +41,9 @@ import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Util class to map unified asset URIs to native URIs. URIs like file:///
@@ -52,6 +56,27 @@ public final class AssetUtil {
     // Name of the storage folder
     private static final String STORAGE_FOLDER = "/localnotification";
 
+    // Time in ms to wait for the connection to a remote asset
+    private static final int CONNECT_TIMEOUT = 5000;
+
+    // Time in ms to wait for the next bytes of a remote asset. Keeps a
+    // stalled download from blocking the thread, as reads on a socket do
+    // not get interrupted.
+    private static final int READ_TIMEOUT = 3000;
+
+    // Class generated at build time which maps the app's resource names
+    private static final String RESOURCE_MANIFEST =
+            "de.appplant.cordova.plugin.notification.util.ResourceManifest";
+
+    // Resolved resource IDs by name, 0 for names that could not be found
+    private static final Map<String, Integer> resIds = loadResourceManifest();
+
+    // Number of resource IDs generated at build time
+    private static final int manifestSize = resIds.size();
+
+    // Time when the APK was installed or updated last, 0 until known
+    private static volatile long appVersion = 0;
+
     // Ref to the context passed through the constructor to access the
     // resources and app directory.
     private final Context context;
@@ -65,6 +90,26 @@ public final class AssetUtil {
         this.context = context;
     }
 
+    /**
+     * Resource IDs of the app as generated at build time. Saves the
+     * reflective lookup via getIdentifier for all the app's own resources.
+     *
+     * @return Empty map if the build did not generate the manifest.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Integer> loadResourceManifest() {
+        Map<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+
+        try {
+            Class<?> cls = Class.forName(RESOURCE_MANIFEST);
+            ids.putAll((Map<String, Integer>) cls.getField("IDS").get(null));
+        } catch (Exception e) {
+            Log.w("Asset", "Missing resource manifest");
+        }
+
+        return ids;
+    }
+
     /**
      * Static method to retrieve class instance.
      *
@@ -118,7 +163,8 @@ public final class AssetUtil {
     }
 
     /**
-     * URI for an asset.
+     * URI for an asset. Uncompressed assets are served by the provider
+     * straight out of the APK, only compressed ones get copied.
      *
      * @param path Asset path like file://...
      *
@@ -127,17 +173,30 @@ public final class AssetUtil {
     private Uri getUriFromAsset(String path) {
         String resPath  = path.replaceFirst("file:/", "www")
                 .replaceFirst("\\?.*$", "");
-        String fileName = resPath.substring(resPath.lastIndexOf('/') + 1);
-        File file       = getTmpFile(fileName);
+
+        if (isUncompressedAsset(resPath))
+            return AssetProvider.getUriForAsset(context, resPath);
+
+        File file = getTmpFile(getCacheName(resPath));
 
         if (file == null)
             return Uri.EMPTY;
 
+        if (isCached(file))
+            return getUriFromFile(file);
+
+        File part = new File(file.getPath() + ".part");
+
         try {
             AssetManager assets  = context.getAssets();
             InputStream in       = assets.open(resPath);
-            FileOutputStream out = new FileOutputStream(file);
-            copyFile(in, out);
+            FileOutputStream out = new FileOutputStream(part);
+
+            if (!copyFile(in, out) || !part.renameTo(file)) {
+                //noinspection ResultOfMethodCallIgnored
+                part.delete();
+                return Uri.EMPTY;
+            }
         } catch (Exception e) {
             Log.e("Asset", "File not found: assets/" + resPath);
             e.printStackTrace();
@@ -147,6 +206,21 @@ public final class AssetUtil {
         return getUriFromFile(file);
     }
 
+    /**
+     * If the asset is stored uncompressed within the APK so that it can be
+     * opened as a file descriptor.
+     *
+     * @param resPath Asset path like www/...
+     */
+    private boolean isUncompressedAsset(String resPath) {
+        try {
+            context.getAssets().openFd(resPath).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
     /**
      * The URI for a resource.
      *
@@ -173,21 +247,29 @@ public final class AssetUtil {
     }
 
     /**
-     * Uri from remote located content.
+     * Uri from remote located content. The file is cached by its address
+     * and not validated again, so a changed file needs a new address like
+     * another query string.
      *
      * @param path Remote address.
      *
      * @return Uri of the downloaded file.
      */
     private Uri getUriFromRemote(String path) {
-        File file = getTmpFile();
+        File file = getTmpFile(getCacheName(path));
 
         if (file == null)
             return Uri.EMPTY;
 
+        if (isCached(file))
+            return getUriFromFile(file);
+
+        File part                    = new File(file.getPath() + ".part");
+        HttpURLConnection connection = null;
+
         try {
-            URL url = new URL(path);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            URL url    = new URL(path);
+            connection = (HttpURLConnection) url.openConnection();
 
             StrictMode.ThreadPolicy policy =
                     new StrictMode.ThreadPolicy.Builder().permitAll().build();
@@ -195,13 +277,19 @@ public final class AssetUtil {
             StrictMode.setThreadPolicy(policy);
 
             connection.setRequestProperty("Connection", "close");
-            connection.setConnectTimeout(5000);
+            connection.setConnectTimeout(CONNECT_TIMEOUT);
+            connection.setReadTimeout(READ_TIMEOUT);
             connection.connect();
 
             InputStream in       = connection.getInputStream();
-            FileOutputStream out = new FileOutputStream(file);
+            FileOutputStream out = new FileOutputStream(part);
+
+            if (!copyFile(in, out) || !part.renameTo(file)) {
+                //noinspection ResultOfMethodCallIgnored
+                part.delete();
+                return Uri.EMPTY;
+            }
 
-            copyFile(in, out);
             return getUriFromFile(file);
         } catch (MalformedURLException e) {
             Log.e("Asset", "Incorrect URL");
@@ -212,29 +300,56 @@ public final class AssetUtil {
         } catch (IOException e) {
             Log.e("Asset", "No Input can be created from http Stream");
             e.printStackTrace();
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
         }
 
         return Uri.EMPTY;
     }
 
     /**
-     * Copy content from input stream into output stream.
+     * Copy content from input stream into output stream. Stops if the
+     * thread gets interrupted, e.g. since the caller stopped waiting.
      *
      * @param in  The input stream.
      * @param out The output stream.
+     *
+     * @return false if the content could not be copied completely.
      */
-    private void copyFile(InputStream in, FileOutputStream out) {
+    private boolean copyFile(InputStream in, FileOutputStream out) {
         byte[] buffer = new byte[1024];
         int read;
 
         try {
             while ((read = in.read(buffer)) != -1) {
+                if (Thread.currentThread().isInterrupted())
+                    return false;
+
                 out.write(buffer, 0, read);
             }
             out.flush();
-            out.close();
+            return true;
         } catch (Exception e) {
             e.printStackTrace();
+            return false;
+        } finally {
+            close(in);
+            close(out);
+        }
+    }
+
+    /**
+     * Close the stream and ignore any failure.
+     *
+     * @param stream The stream to close.
+     */
+    private void close(Closeable stream) {
+        try {
+            stream.close();
+        } catch (IOException ignore) {
+            // Nothing left to do
         }
     }
 
@@ -246,7 +361,17 @@ public final class AssetUtil {
      * @return The resource ID or 0 if not found.
      */
     public int getResId(String resPath) {
-        int resId = getResId(context.getResources(), resPath);
+        String resName = getBaseName(resPath);
+        Integer resId  = resIds.get(resName);
+
+        if (resId == null) {
+            resId = getResId(context.getResources(), resName);
+            resIds.put(resName, resId);
+
+            if (resId != 0 && manifestSize > 0) {
+                Log.w("Asset", "Resource not in manifest, e.g. from a library: " + resName);
+            }
+        }
 
         return resId;
     }
@@ -255,13 +380,12 @@ public final class AssetUtil {
      * Get resource ID.
      *
      * @param res     The resources where to look for.
-     * @param resPath The name of the resource.
+     * @param resName The base name of the resource.
      *
      * @return The resource ID or 0 if not found.
      */
-    private int getResId(Resources res, String resPath) {
+    private int getResId(Resources res, String resName) {
         String pkgName = getPkgName(res);
-        String resName = getBaseName(resPath);
         int resId;
 
         resId = res.getIdentifier(resName, "mipmap", pkgName);
@@ -307,14 +431,74 @@ public final class AssetUtil {
     }
 
     /**
-     * Returns a file located under the external cache dir of that app.
+     * Name of the cache file for a remote or a compressed asset path. The
+     * name is derived from the path so that later lookups can find it.
+     * Assets can change with each app update, so their name also depends
+     * on the time of the last update. The copies of older versions are
+     * left to the janitor.
+     *
+     * @param path Remote address or asset path like file://...
+     *
+     * @return null if the path does not get cached.
+     */
+    String getCacheName (String path) {
+        if (path == null) {
+            return null;
+        } else if (path.startsWith("http")) {
+            return UUID.nameUUIDFromBytes(path.getBytes()).toString();
+        } else if (path.startsWith("file:///")) {
+            return null;
+        } else if (path.startsWith("file://")) {
+            return getCacheName(path.replaceFirst("file:/", "www")
+                    .replaceFirst("\\?.*$", ""));
+        } else if (path.startsWith("www/")) {
+            String key = path + "@" + getAppVersion();
+            return UUID.nameUUIDFromBytes(key.getBytes()).toString();
+        }
+
+        return null;
+    }
+
+    /**
+     * Time when the APK was installed or updated last. The process gets
+     * killed on update, hence it's looked up only once.
+     *
+     * @return 0 if unknown.
+     */
+    private long getAppVersion() {
+        if (appVersion != 0)
+            return appVersion;
+
+        try {
+            appVersion = context.getPackageManager()
+                    .getPackageInfo(context.getPackageName(), 0)
+                    .lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            e.printStackTrace();
+        }
+
+        return appVersion;
+    }
+
+    /**
+     * If the file is already in the cache. Touches the file in that case
+     * so that it counts as recently used.
      *
-     * @return File with a random UUID name.
+     * @param file The cache file to check.
      */
-    private File getTmpFile () {
-        // If random UUID is not be enough see
-        // https://github.com/LukePulverenti/cordova-plugin-local-notifications/blob/267170db14044cbeff6f4c3c62d9b766b7a1dd62/src/android/notification/AssetUtil.java#L255
-        return getTmpFile(UUID.randomUUID().toString());
+    private boolean isCached (File file) {
+        AssetCache cache = AssetCache.getInstance(context);
+
+        if (file.length() == 0) {
+            cache.recordMiss();
+            return false;
+        }
+
+        //noinspection ResultOfMethodCallIgnored
+        file.setLastModified(System.currentTimeMillis());
+        cache.recordHit();
+
+        return true;
     }
 
     /**
@@ -325,6 +509,24 @@ public final class AssetUtil {
      * @return File with the provided name.
      */
     private File getTmpFile (String name) {
+        File dir = getStorageDir();
+
+        if (dir == null)
+            return null;
+
+        //noinspection ResultOfMethodCallIgnored
+        dir.mkdir();
+
+        return new File(dir, name);
+    }
+
+    /**
+     * The folder under the external cache dir of that app where to store
+     * copied and downloaded files.
+     *
+     * @return null if there's no cache dir.
+     */
+    File getStorageDir () {
         File dir = context.getExternalCacheDir();
 
         if (dir == null) {
@@ -336,12 +538,7 @@ public final class AssetUtil {
             return null;
         }
 
-        String storage  = dir.toString() + STORAGE_FOLDER;
-
-        //noinspection ResultOfMethodCallIgnored
-        new File(storage).mkdir();
-
-        return new File(storage, name);
+        return new File(dir.toString() + STORAGE_FOLDER);
     }
 
     /**
@@ -353,7 +550,7 @@ public final class AssetUtil {
      */
     private Uri getUriFromFile(File file) {
         try {
-            String authority = context.getPackageName() + "localnotifications.provider";
+            String authority = AssetProvider.getAuthority(context);
             return AssetProvider.getUriForFile(context, authority, file);
         } catch (IllegalArgumentException e) {
             e.printStackTrace();
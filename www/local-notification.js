@@ -62,6 +62,9 @@ exports._defaults = {
 // Event listener
 exports._listener = {};
 
+// Listened events and their fields as last told to the native side
+exports._listenerSync = null;
+
 /**
  * Check permission to show notifications.
  *
@@ -154,6 +157,71 @@ exports.update = function (msgs, callback, scope, args) {
     }
 };
 
+/**
+ * Set the progress of a posted notification. Bursts of changes are merged
+ * so that only the newest value gets posted. The value is not persisted.
+ * Android only, other platforms fall back to update.
+ *
+ * @param [ Int ]      id       The ID of the notification.
+ * @param [ Int ]      value    The progress value.
+ * @param [ Int ]      max      The max progress value, 100 by default.
+ * @param [ Function ] callback The function to be exec as the callback.
+ * @param [ Object ]   scope    The callback function's scope.
+ *
+ * @return [ Void ]
+ */
+exports.progress = function (id, value, max, callback, scope) {
+    if (device.platform != 'Android') {
+        var bar = { value: value, maxValue: max || 100 };
+        this.update({ id: id, progressBar: bar }, callback, scope);
+        return;
+    }
+
+    this._exec('progress', [id, value, max || 100], callback, scope);
+};
+
+/**
+ * Make the given notifications the only scheduled ones. Notifications with
+ * an unchanged ID and content are left alone, new or changed ones get
+ * scheduled and all others get canceled. Android only.
+ *
+ * @param [ Array<Object> ] msgs     The desired notifications.
+ * @param [ Function ]      callback The function to be exec as the callback.
+ * @param [ Object ]        scope    The callback function's scope.
+ * @param [ Object ]        args     Optional flags how to schedule.
+ *
+ * @return [ Void ]
+ */
+exports.sync = function (msgs, callback, scope, args) {
+    if (device.platform != 'Android') {
+        console.warn('sync is only supported on Android.');
+        return;
+    }
+
+    var fn = function (granted) {
+        var toasts = this._toArray(msgs);
+
+        if (!granted && callback) {
+            callback.call(scope || this, false);
+            return;
+        }
+
+        for (var i = 0, len = toasts.length; i < len; i++) {
+            var toast = toasts[i];
+            this._mergeWithDefaults(toast);
+            this._convertProperties(toast);
+        }
+
+        this._exec('sync', toasts, callback, scope);
+    };
+
+    if (args && args.skipPermission) {
+        fn.call(this, true);
+    } else {
+        this.requestPermission(fn, this);
+    }
+};
+
 /**
  * Clear the specified notifications by id.
  *
@@ -460,10 +528,12 @@ exports.setDefaults = function (newDefaults) {
  * @param [ String ]   event    The name of the event.
  * @param [ Function ] callback The function to be exec as callback.
  * @param [ Object ]   scope    The callback function's scope.
+ * @param [ Array ]    fields   Optional notification properties the
+ *                              callback needs, the ID is always included.
  *
  * @return [ Void ]
  */
-exports.on = function (event, callback, scope) {
+exports.on = function (event, callback, scope, fields) {
     var type = typeof callback;
 
     if (type !== 'function' && type !== 'string')
@@ -473,9 +543,10 @@ exports.on = function (event, callback, scope) {
         this._listener[event] = [];
     }
 
-    var item = [callback, scope || window];
+    var item = [callback, scope || window, fields];
 
     this._listener[event].push(item);
+    this._syncListeners();
 };
 
 /**
@@ -500,6 +571,8 @@ exports.un = function (event, callback) {
             break;
         }
     }
+
+    this._syncListeners();
 };
 
 /**
@@ -533,6 +606,23 @@ exports.fireEvent = function (event) {
     }
 };
 
+/**
+ * Fire a batch of events in the order they were raised by the native side.
+ *
+ * @param [ Array<Array> ] events List of arguments for each fireEvent call.
+ *
+ * @return [ Void ]
+ */
+exports._fireEvents = function (events) {
+    for (var i = 0; i < events.length; i++) {
+        try {
+            this.fireEvent.apply(this, events[i]);
+        } catch (e) {
+            console.error(e);
+        }
+    }
+};
+
 /**
  * Fire queued events once the device is ready and all listeners are registered.
  *
@@ -559,6 +649,57 @@ exports.listChannels = function (success, error) {
     exec(success, error, "LocalNotification", "listChannels", []);
 };
 
+/**
+ * Size of the cache folder for downloaded and copied assets together with
+ * the number of cache hits, misses and removed files.
+ *
+ * @param [ Function ] callback The function to be exec as the callback.
+ * @param [ Object ]   scope    The callback function's scope.
+ *
+ * @return [ Void ]
+ */
+exports.getCacheStats = function (callback, scope) {
+    this._exec('cacheStats', null, callback, scope);
+};
+
+/**
+ * Queue depth and wait times of the native command executor, separately
+ * for queries and for commands which change notifications.
+ *
+ * @param [ Function ] callback The function to be exec as the callback.
+ * @param [ Object ]   scope    The callback function's scope.
+ *
+ * @return [ Void ]
+ */
+exports.getQueueStats = function (callback, scope) {
+    this._exec('queueStats', null, callback, scope);
+};
+
+/**
+ * Progress of the last restore after boot. The times are the uptime in ms
+ * since boot, where first is the time to the first restored notification.
+ *
+ * @param [ Function ] callback The function to be exec as the callback.
+ * @param [ Object ]   scope    The callback function's scope.
+ *
+ * @return [ Void ]
+ */
+exports.getRestoreStats = function (callback, scope) {
+    this._exec('restoreStats', null, callback, scope);
+};
+
+/**
+ * Call count, error count and latency histogram of each native action.
+ *
+ * @param [ Function ] callback The function to be exec as the callback.
+ * @param [ Object ]   scope    The callback function's scope.
+ *
+ * @return [ Void ]
+ */
+exports.getActionStats = function (callback, scope) {
+    this._exec('stats', null, callback, scope);
+};
+
 /**
  * Merge custom properties with the default values.
  *
@@ -923,6 +1064,71 @@ exports._exec = function (action, args, callback, scope) {
     exec(fn, null, 'LocalNotification', action, params);
 };
 
+/**
+ * Open the channel through which the native side delivers its events.
+ * Falls back to script injection on platforms without such channel.
+ *
+ * @return [ Void ]
+ */
+exports._openEventChannel = function () {
+    if (device.platform != 'Android')
+        return;
+
+    exec(function (events) {
+        exports._fireEvents(events);
+    }, null, 'LocalNotification', 'events', []);
+
+    exports._listenerSync = '';
+    exports._syncListeners();
+};
+
+/**
+ * Tell the native side which events have listeners and which notification
+ * properties they need, so that it can skip or trim the other events.
+ * An event maps to null if at least one listener needs all properties.
+ *
+ * @return [ Void ]
+ */
+exports._syncListeners = function () {
+    var map = {}, json;
+
+    if (this._listenerSync === null)
+        return;
+
+    for (var event in this._listener) {
+        var listener = this._listener[event];
+
+        if (!listener.length)
+            continue;
+
+        map[event] = [];
+
+        for (var i = 0; i < listener.length; i++) {
+            var fields = listener[i][2];
+
+            if (!Array.isArray(fields)) {
+                map[event] = null;
+                break;
+            }
+
+            for (var j = 0; j < fields.length; j++) {
+                if (map[event].indexOf(fields[j]) == -1) {
+                    map[event].push(fields[j]);
+                }
+            }
+        }
+    }
+
+    json = JSON.stringify(map);
+
+    if (json == this._listenerSync)
+        return;
+
+    this._listenerSync = json;
+
+    exec(null, null, 'LocalNotification', 'listeners', [map]);
+};
+
 /**
  * Set the launch details if the app was launched by clicking on a toast.
  *
@@ -1049,6 +1255,7 @@ channel.deviceready.subscribe(function () {
 // Called before 'deviceready' event
 channel.onCordovaReady.subscribe(function () {
     channel.onCordovaInfoReady.subscribe(function () {
+        exports._openEventChannel();
         exports._setLaunchDetails();
     });
 });